@@ -0,0 +1,63 @@
+package com.joklek.rentbot.bot;
+
+import com.joklek.rentbot.entities.Post;
+import com.pengrad.telegrambot.request.SendMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostResponseCreatorBenchmark {
+
+    private final PostResponseCreator postResponseCreator = new PostResponseCreator();
+    private Post fullPost;
+    private Post sparsePost;
+
+    @Setup
+    public void setUp() {
+        fullPost = new Post();
+        fullPost.setLink("https://www.example.lt/skelbimai/123456");
+        fullPost.setPhone("+37061234567");
+        fullPost.setDistrict("Naujamiestis");
+        fullPost.setStreet("Naugarduko g.");
+        fullPost.setHouseNumber("34");
+        fullPost.setPrice(new BigDecimal("550"));
+        fullPost.setArea(new BigDecimal("45.5"));
+        fullPost.setRooms(2);
+        fullPost.setConstructionYear(1985);
+        fullPost.setHeating("Centrinis kolektorinis");
+        fullPost.setFloor(3);
+        fullPost.setTotalFloors(5);
+        fullPost.setWithFees(true);
+
+        sparsePost = new Post();
+        sparsePost.setLink("https://www.example.lt/skelbimai/654321");
+        sparsePost.setPrice(new BigDecimal("480"));
+        sparsePost.setWithFees(false);
+    }
+
+    @Benchmark
+    public SendMessage fullPost() {
+        return postResponseCreator.createTelegramMessage(123456789L, fullPost);
+    }
+
+    @Benchmark
+    public SendMessage sparsePost() {
+        return postResponseCreator.createTelegramMessage(123456789L, sparsePost);
+    }
+}
@@ -0,0 +1,93 @@
+package com.joklek.rentbot.bot;
+
+import com.joklek.rentbot.bot.callbacks.CallbackResponder;
+import com.joklek.rentbot.bot.commands.Command;
+import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.model.Update;
+import com.pengrad.telegrambot.request.BaseRequest;
+import com.pengrad.telegrambot.request.SendMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecognizerBenchmark {
+    private static final String[] COMMANDS = {"/start", "/config 300 500 1 3 1990 2 40 yes", "/enable", "/districts", "/replay 20", "/unknown"};
+    private static final String[] CALLBACKS = {"/fdistricts:page:2", "/fdistricts:toggle:12", "/fconfig:price_min", "/funknown:1"};
+
+    private CommandRecognizer commandRecognizer;
+    private CallbackRecognizer callbackRecognizer;
+
+    @Setup
+    public void setUp() {
+        var commands = Stream.of("/start", "/config", "/enable", "/disable", "/districts", "/replay", "/info")
+                .collect(Collectors.toMap(Function.identity(), RecognizerBenchmark::command));
+        commandRecognizer = new CommandRecognizer(commands, command("/error"));
+        var callbacks = Stream.of("districts", "config")
+                .collect(Collectors.toMap(Function.identity(), RecognizerBenchmark::callback));
+        callbackRecognizer = new CallbackRecognizer(callbacks);
+    }
+
+    @Benchmark
+    public void commands(Blackhole blackhole) {
+        for (var command : COMMANDS) {
+            blackhole.consume(commandRecognizer.getHandler(command));
+            blackhole.consume(commandRecognizer.getPayload(command));
+        }
+    }
+
+    @Benchmark
+    public void callbacks(Blackhole blackhole) {
+        for (var callback : CALLBACKS) {
+            blackhole.consume(callbackRecognizer.getHandler(callback));
+            blackhole.consume(callbackRecognizer.getPayload(callback));
+        }
+    }
+
+    private static Command command(String name) {
+        return new Command() {
+            @Override
+            public String command() {
+                return name;
+            }
+
+            @Override
+            public List<SendMessage> handle(Update update, String payload) {
+                return List.of();
+            }
+        };
+    }
+
+    private static CallbackResponder callback(String name) {
+        return new CallbackResponder() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public BaseRequest<?, ?> handle(Update update, TelegramBot bot, String... payload) {
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package com.joklek.rentbot.entities;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+// The conversion steps as PostEntityConverter did them before they were optimized, kept as a baseline
+class LegacyConversion {
+    private static final Map<String, String> LETTER_REPLACE_MAP = Map.of(
+            "ą", "a", "č", "c", "ę", "e", "ė", "e", "į", "i", "š", "s", "ų", "u", "ū", "u", "ž", "z", "y", "i");
+
+    private static final List<String> FEE_KEYWORDS = List.of(
+            "(ira mokestis)",
+            "mokestis (jei butas",
+            "\ntaikomas tarpininkavimas",
+            "tiks vienkartinis tarpinink"
+    );
+
+    private static final List<Pattern> FEE_PATTERNS = List.of(
+            Pattern.compile("(agent|tarpinink|vienkart)\\S+ mokestis[\\s:-]{0,3}\\d+", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("\\d+\\s?\\S+ (agent|tarpinink|vienkart)\\S+ (tarp|mokest)\\S+", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("\\W(ira|bus) (taikoma(s|)|imama(s|)|vienkartinis|agent\\S+)( vienkartinis|) (agent|tarpinink|mokest)\\S+", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("\\Wtiks[^\\s\\w]?\\s?(bus|ira|) (taikoma(s|)|imama(s|))", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("\\W(ira |)(taikoma(s|)|imama(s|)|vienkartinis|sutarties)( sutarties|) sudar\\S+ mokestis", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("(ui|ir) (ira |)(taikoma(s|)|imama(s|)) (vienkart|agent|tarpinink|mokest)\\S+", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("(vienkartinis |)(agent|tarpinink)\\S+ mokest\\S+,? jei", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("[^\\w\\s](\\s|)(taikoma(s|)|imama(s|)|vienkartinis|agent\\S+)( vienkartinis|) (agent|tarpinink|mokest)\\S+", Pattern.CASE_INSENSITIVE)
+    );
+
+    static boolean isWithFees(String description) {
+        var descriptionSimplified = description;
+        for (var entry : LETTER_REPLACE_MAP.entrySet()) {
+            descriptionSimplified = descriptionSimplified.replace(entry.getKey(), entry.getValue());
+        }
+        for (var keyword : FEE_KEYWORDS) {
+            if (descriptionSimplified.contains(keyword)) {
+                return true;
+            }
+        }
+        for (var pattern : FEE_PATTERNS) {
+            if (pattern.matcher(descriptionSimplified).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String hash(String description) {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        messageDigest.update(description.replaceAll("\\s", "").trim().getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(messageDigest.digest());
+    }
+
+    static Optional<String> houseNumber(String description, String street) {
+        var streetPattern = Pattern.compile(String.format("%s ?(\\d{1,3}[A-Z]?)(\\s|(-\\d)|\\.|,|;|!|$)", street), Pattern.CASE_INSENSITIVE);
+        var matcher = streetPattern.matcher(description);
+        return matcher.find() ? Optional.of(matcher.group(1)) : Optional.empty();
+    }
+}
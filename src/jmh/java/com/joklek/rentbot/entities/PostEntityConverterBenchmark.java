@@ -0,0 +1,113 @@
+package com.joklek.rentbot.entities;
+
+import com.joklek.rentbot.scraper.PostDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostEntityConverterBenchmark {
+    private static final String TEXT = "Nuomojamas šviesus ir jaukus 2 kambarių butas Naujamiestyje. "
+            + "Butas visiškai įrengtas: nauji baldai, indaplovė, skalbimo mašina, šaldytuvas. "
+            + "Netoliese parduotuvės, mokyklos, viešojo transporto stotelės. Ilgalaikė nuoma, "
+            + "galima deklaruoti gyvenamąją vietą. Mokesčiai pagal skaitliukus, žiemą apie 80 eur. ";
+
+    @Param({"1", "8"})
+    private int paragraphs;
+    @Param({"false", "true"})
+    private boolean withFees;
+
+    private PostEntityConverter converter;
+    private FeeDetector feeDetector;
+    private HouseNumberExtractor houseNumberExtractor;
+    private DescriptionHasher descriptionHasher;
+    private PostDto post;
+    private String description;
+    private String street;
+
+    @Setup
+    public void setUp() {
+        feeDetector = new FeeDetector();
+        houseNumberExtractor = new HouseNumberExtractor();
+        descriptionHasher = new DescriptionHasher();
+        converter = new PostEntityConverter(feeDetector, houseNumberExtractor, descriptionHasher);
+
+        street = "Naugarduko g.";
+        var fees = withFees ? "Jeigu butas tiks, bus taikomas vienkartinis tarpininkavimo mokestis. " : "";
+        description = TEXT.repeat(paragraphs) + fees + "Adresas Naugarduko g. 34, šalia stotelės.";
+        post = new BenchmarkPost()
+                .setExternalId("123456")
+                .setLink(URI.create("https://www.example.lt/skelbimai/123456"))
+                .setPhone("8 612 34567")
+                .setDescription(description)
+                .setStreet(street)
+                .setDistrict("Naujamiestis")
+                .setHeating("Centrinis")
+                .setFloor(3)
+                .setTotalFloors(5)
+                .setArea(new BigDecimal("45.5"))
+                .setPrice(new BigDecimal("550"))
+                .setRooms(2)
+                .setYear(1985);
+    }
+
+    @Benchmark
+    public Post convert() {
+        return converter.convert(post);
+    }
+
+    @Benchmark
+    public boolean feesAutomaton() {
+        return feeDetector.isWithFees(description);
+    }
+
+    @Benchmark
+    public boolean feesLegacyRegexes() {
+        return LegacyConversion.isWithFees(description);
+    }
+
+    @Benchmark
+    public String hashReusedDigest() {
+        return descriptionHasher.hash(description);
+    }
+
+    @Benchmark
+    public String hashLegacy() {
+        return LegacyConversion.hash(description);
+    }
+
+    @Benchmark
+    public Optional<String> houseNumberExtractor() {
+        return houseNumberExtractor.extract(description, street);
+    }
+
+    @Benchmark
+    public Optional<String> houseNumberLegacyPattern() {
+        return LegacyConversion.houseNumber(description, street);
+    }
+
+    private static class BenchmarkPost extends PostDto {
+        @Override
+        public String getSource() {
+            return "BENCHMARK";
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.joklek.rentbot.scraper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.joklek.rentbot.repo.PostRepo;
+import org.jsoup.Jsoup;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+// Detail pages are parsed from the hand-written test fixtures, so only parsing and extraction are measured.
+// Aruodas and Skelbiu read pages through a live browser and are not covered here
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScraperParsingBenchmark {
+
+    private AlioScraper alio;
+    private CapitalScraper capital;
+    private DomopliusScraper domoplius;
+    private KampasScraper kampas;
+    private String alioItem;
+    private String capitalItem;
+    private String domopliusItem;
+    private byte[] kampasSearch;
+
+    @Setup
+    public void setUp() {
+        var knownPosts = new KnownPostIndex(Mockito.mock(PostRepo.class));
+        knownPosts.warmUp();
+        var client = HttpClient.newHttpClient();
+        var timeout = Duration.ofSeconds(30);
+        alio = new AlioScraper(knownPosts, client, timeout);
+        capital = new CapitalScraper(knownPosts, client, timeout);
+        domoplius = new DomopliusScraper(knownPosts, client, timeout);
+        kampas = new KampasScraper(client, new ObjectMapper(), knownPosts);
+
+        alioItem = new String(fixture("alio-item.html"), StandardCharsets.UTF_8);
+        capitalItem = new String(fixture("capital-item.html"), StandardCharsets.UTF_8);
+        domopliusItem = new String(fixture("domoplius-item.html"), StandardCharsets.UTF_8);
+        kampasSearch = fixture("kampas-search.json");
+    }
+
+    @Benchmark
+    public PostDto alio() {
+        return alio.parseItem("123456", Jsoup.parse(alioItem, "https://www.alio.lt/"));
+    }
+
+    @Benchmark
+    public PostDto capital() {
+        return capital.parseItem("123456", Jsoup.parse(capitalItem, "https://www.capital.lt/"));
+    }
+
+    @Benchmark
+    public PostDto domoplius() {
+        return domoplius.parseItem("123456", Jsoup.parse(domopliusItem, "https://m.domoplius.lt/"));
+    }
+
+    @Benchmark
+    public List<PostDto> kampas() throws IOException {
+        return kampas.readNewestHits(new ByteArrayInputStream(kampasSearch)).stream()
+                .map(kampas::processItem)
+                .toList();
+    }
+
+    private static byte[] fixture(String name) {
+        try (var stream = ScraperParsingBenchmark.class.getResourceAsStream("/fixtures/" + name)) {
+            return Objects.requireNonNull(stream, name).readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,166 +1,188 @@
 package com.joklek.rentbot;
 
-import com.joklek.rentbot.bot.PostResponseCreator;
 import com.joklek.rentbot.entities.Post;
-import com.joklek.rentbot.entities.PostEntityConverter;
-import com.joklek.rentbot.repo.DistrictRepo;
-import com.joklek.rentbot.repo.PostRepo;
-import com.joklek.rentbot.repo.UserRepo;
+import com.joklek.rentbot.notification.PostPublisher;
+import com.joklek.rentbot.scraper.KnownPostIndex;
+import com.joklek.rentbot.scraper.PollingIntervalEstimator;
 import com.joklek.rentbot.scraper.PostDto;
 import com.joklek.rentbot.scraper.Scraper;
-import com.pengrad.telegrambot.TelegramBot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Stream;
+import java.util.concurrent.*;
 
-import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.function.Predicate.not;
 import static org.slf4j.LoggerFactory.getLogger;
 
 @Profile("!test")
 @Component
-public class ScheduledScraper {
+public class ScheduledScraper implements SchedulingConfigurer {
 
     private static final Logger LOGGER = getLogger(ScheduledScraper.class);
+    private static final LocalTime MORNING = LocalTime.of(6, 0);
 
     private final List<Scraper> scrapers;
-    private final UserRepo users;
-    private final PostRepo posts;
-    private final DistrictRepo districts;
-    private final PostEntityConverter postConverter;
-    private final PostResponseCreator postResponseCreator;
-    private final TelegramBot bot;
+    private final KnownPostIndex knownPosts;
+    private final PostPublisher postPublisher;
+    private final PollingIntervalEstimator pollingIntervals;
+    private final Duration scraperTimeout;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService scraperExecutor;
     private final Random random;
+    // A cancelled scrape keeps running while Selenium or a blocked read ignores the interrupt
+    private final Map<String, Thread> scrapeThreads = new ConcurrentHashMap<>();
 
-    public ScheduledScraper(List<Scraper> scrapers, UserRepo users, PostRepo posts, DistrictRepo districts, PostEntityConverter postConverter, PostResponseCreator postResponseCreator, TelegramBot bot) {
+    public ScheduledScraper(List<Scraper> scrapers, KnownPostIndex knownPosts, PostPublisher postPublisher,
+                            PollingIntervalEstimator pollingIntervals, @Value("${application.scraper.timeout}") Duration scraperTimeout,
+                            MeterRegistry meterRegistry) {
         this.scrapers = scrapers;
-        this.users = users;
-        this.posts = posts;
-        this.districts = districts;
-        this.postConverter = postConverter;
-        this.postResponseCreator = postResponseCreator;
-        this.bot = bot;
+        this.knownPosts = knownPosts;
+        this.postPublisher = postPublisher;
+        this.pollingIntervals = pollingIntervals;
+        this.scraperTimeout = scraperTimeout;
+        this.meterRegistry = meterRegistry;
+        this.scraperExecutor = Executors.newVirtualThreadPerTaskExecutor();
         this.random = new Random();
     }
 
-    @Scheduled(fixedRate = 5, initialDelay = 0L, timeUnit = TimeUnit.MINUTES)
-    public void scrapePosts() throws InterruptedException {
-        if (isNightTime()) {
-            return;
-        } else {
-            Thread.sleep(SECONDS.toMillis(random.nextInt(60)));
-        }
-
-        var shuffledScrapers = new ArrayList<>(scrapers);
-        Collections.shuffle(shuffledScrapers);
-
-        var unpublishedPosts = shuffledScrapers.stream() // TODO parallel streams?
-                .map(ScheduledScraper::getLatestPosts)
-                .flatMap(Collection::stream)
-                .filter(not(post -> posts.existsByExternalIdAndSource(post.getExternalId(), post.getSource())))
-                .toList();
+    @PreDestroy
+    public void shutdown() {
+        scraperExecutor.shutdownNow();
+    }
 
-        unpublishedPosts.stream()
-                .map(post -> save(post))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .forEach(post -> notifyUsers(post));
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        scrapers.forEach(scraper -> taskRegistrar.addTriggerTask(() -> scrapePosts(scraper), context -> nextScrape(scraper, context)));
     }
 
-    private static List<PostDto> getLatestPosts(Scraper scraper) {
+    private void scrapePosts(Scraper scraper) {
+        var cycle = new ScrapeCycleEvent();
+        cycle.begin();
+        cycle.source = scraper.getSource();
+        // The next scrape would share its list page state and browsers, so it is skipped until the old one ends
+        var previous = scrapeThreads.get(scraper.getSource());
+        if (previous != null && previous.isAlive()) {
+            LOGGER.warn("{} is still running a cancelled scrape, skipping", scraper.getClass());
+            countFailure(scraper, "overlap");
+            cycle.outcome = "overlap";
+            cycle.commit();
+            return;
+        }
+        var scrape = scraperExecutor.submit(() -> {
+            scrapeThreads.put(scraper.getSource(), Thread.currentThread());
+            return getLatestPosts(scraper);
+        });
         try {
-            return scraper.getLatestPosts();
-        } catch (Exception e) {
-            LOGGER.error("{} failed with", scraper.getClass(), e);
-            return List.of();
+            var latestPosts = scrape.get(scraperTimeout.toNanos(), NANOSECONDS);
+            cycle.items = latestPosts.size();
+            cycle.newItems = publish(scraper.getSource(), latestPosts);
+            cycle.outcome = "success";
+        } catch (TimeoutException e) {
+            LOGGER.error("{} did not finish in {}, cancelling", scraper.getClass(), scraperTimeout);
+            countFailure(scraper, "timeout");
+            cycle.outcome = "timeout";
+            scrape.cancel(true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cycle.outcome = "interrupted";
+            scrape.cancel(true);
+        } catch (ExecutionException e) {
+            LOGGER.error("{} failed with", scraper.getClass(), e.getCause());
+            cycle.outcome = "error";
+        } finally {
+            cycle.commit();
         }
     }
 
-    private boolean isNightTime() {
-        var now = LocalDateTime.now();
-        return now.getHour() >= 23 || now.getHour() < 6;
+    private Instant nextScrape(Scraper scraper, TriggerContext context) {
+        var interval = context.lastCompletion() == null ? Duration.ZERO : pollingIntervals.getInterval(scraper.getSource());
+        return nextScrape(LocalDateTime.now(), interval, random.nextInt(60)).atZone(ZoneId.systemDefault()).toInstant();
     }
 
-    private Optional<Post> save(PostDto postDto) {
-        var post = postConverter.convert(postDto);
-        try {
-            return Optional.of(posts.save(post));
-        } catch (Exception e) {
-            LOGGER.error("Failed to save post", e);
-            return Optional.empty();
+    // Nothing is scraped from 23:00 to 6:00, a scrape falling in between waits for the morning
+    static LocalDateTime nextScrape(LocalDateTime now, Duration interval, int jitterSeconds) {
+        var nextScrape = now.plus(interval).plusSeconds(jitterSeconds);
+        if (nextScrape.getHour() >= 23) {
+            return nextScrape.plusDays(1).with(MORNING).plusSeconds(jitterSeconds);
         }
-    }
-
-    private void notifyUsers(Post post) {
-        logPost(post);
-        if (post.getPrice().isEmpty()) {
-            return;
+        if (nextScrape.getHour() < 6) {
+            return nextScrape.with(MORNING).plusSeconds(jitterSeconds);
         }
-
-        getInterestedTelegramIds(post)
-                .forEach(telegramId -> {
-                    try {
-                        bot.execute(postResponseCreator.createTelegramMessage(telegramId, post));
-                    } catch (Exception e) {
-                        LOGGER.error("Can't send telegram message to {}", telegramId, e);
-                    }
-                });
+        return nextScrape;
     }
 
-    private List<Long> getInterestedTelegramIds(Post post) {
-        if (post.getDistrict().isEmpty() || !districts.existsByName(post.getDistrict().get())) {
-            return getDistrictlessInterestedTelegramIds(post);
+    // Sources are scraped independently, but SQLite only allows one writer at a time
+    private synchronized int publish(String source, List<PostDto> latestPosts) {
+        var newPosts = latestPosts.stream()
+                .filter(not(post -> knownPosts.isKnown(post.getSource(), post.getExternalId())))
+                .toList();
+        meterRegistry.counter("rentbot.scrape.new.items", "source", source).increment(newPosts.size());
+        if (newPosts.isEmpty()) {
+            return 0;
         }
-        return getInterestedWithDistrict(post);
-    }
-
-    private List<Long> getDistrictlessInterestedTelegramIds(Post post) {
-        var price = post.getPrice().orElse(null);
-        var rooms = post.getRooms().orElse(null);
-        var year = post.getConstructionYear().orElse(null);
-        var floor = post.getFloor().orElse(null);
-        var area = post.getArea().map(a -> a.toBigInteger().intValue()).orElse(null);
-        if (post.getWithFees()) {
-            return users.findAllTelegramIdsInterestedWithFee(price, rooms, year, floor, area);
+        try {
+            save(newPosts);
+        } catch (Exception e) {
+            LOGGER.error("Failed to save posts together, saving one by one", e);
+            newPosts.forEach(post -> {
+                try {
+                    save(List.of(post));
+                } catch (Exception ex) {
+                    LOGGER.error("Failed to save post", ex);
+                }
+            });
         }
-        return users.findAllTelegramIdsInterested(price, rooms, year, floor, area);
+        return newPosts.size();
     }
 
-    private List<Long> getInterestedWithDistrict(Post post) {
-        var interestedInDistrict = findAllTelegramIdsInterestedInDistrict(post);
-        var districtless = findAllTelegramIdsNotInterestedInDistricts(post);
-        return Stream.concat(interestedInDistrict.stream(), districtless.stream()).toList();
+    private List<PostDto> getLatestPosts(Scraper scraper) {
+        var fetch = new ScraperFetchEvent();
+        fetch.begin();
+        fetch.source = scraper.getSource();
+        var sample = Timer.start(meterRegistry);
+        var startedAt = LocalDateTime.now();
+        try {
+            var latestPosts = scraper.getLatestPosts();
+            latestPosts.forEach(post -> post.setFirstSeenAt(post.getFirstSeenAt().orElse(startedAt)));
+            meterRegistry.counter("rentbot.scrape.items", "source", scraper.getSource()).increment(latestPosts.size());
+            fetch.items = latestPosts.size();
+            fetch.outcome = "success";
+            return latestPosts;
+        } catch (Exception e) {
+            LOGGER.error("{} failed with", scraper.getClass(), e);
+            countFailure(scraper, "error");
+            fetch.outcome = "error";
+            return List.of();
+        } finally {
+            sample.stop(meterRegistry.timer("rentbot.scrape", "source", scraper.getSource()));
+            fetch.commit();
+        }
     }
 
-    private List<Long> findAllTelegramIdsInterestedInDistrict(Post post) {
-        var price = post.getPrice().orElse(null);
-        var rooms = post.getRooms().orElse(null);
-        var year = post.getConstructionYear().orElse(null);
-        var floor = post.getFloor().orElse(null);
-        var district = post.getDistrict().orElse(null);
-        var area = post.getArea().map(a -> a.toBigInteger().intValue()).orElse(null);
-        if (post.getWithFees()) {
-            return users.findAllTelegramIdsInterestedInDistrictWithFee(price, rooms, year, floor, area, district);
-        }
-        return users.findAllTelegramIdsInterestedInDistrict(price, rooms, year, floor, area, district);
+    private void countFailure(Scraper scraper, String reason) {
+        meterRegistry.counter("rentbot.scrape.failures", "source", scraper.getSource(), "reason", reason).increment();
     }
 
-    private List<Long> findAllTelegramIdsNotInterestedInDistricts(Post post) {
-        var price = post.getPrice().orElse(null);
-        var rooms = post.getRooms().orElse(null);
-        var year = post.getConstructionYear().orElse(null);
-        var floor = post.getFloor().orElse(null);
-        var area = post.getArea().map(a -> a.toBigInteger().intValue()).orElse(null);
-        if (post.getWithFees()) {
-            return users.findAllTelegramIdsNotInterestedInDistrictsWithFee(price, rooms, year, floor, area);
-        }
-        return users.findAllTelegramIdsNotInterestedInDistricts(price, rooms, year, floor, area);
+    private void save(List<PostDto> newPosts) {
+        postPublisher.publish(newPosts).forEach(post -> {
+            knownPosts.add(post.getSource(), post.getExternalId());
+            logPost(post);
+        });
     }
 
     private void logPost(Post post) {
@@ -0,0 +1,24 @@
+package com.joklek.rentbot;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("rentbot.ScrapeCycle")
+@Label("Scrape Cycle")
+@Description("One scheduled run of a scraper, from fetching the latest posts to publishing the new ones")
+@Category({"Rentbot", "Scraper"})
+@StackTrace(false)
+class ScrapeCycleEvent extends Event {
+    @Label("Source")
+    String source;
+    @Label("Items")
+    int items;
+    @Label("New Items")
+    int newItems;
+    @Label("Outcome")
+    String outcome;
+}
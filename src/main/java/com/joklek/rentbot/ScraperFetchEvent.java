@@ -0,0 +1,22 @@
+package com.joklek.rentbot;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("rentbot.ScraperFetch")
+@Label("Scraper Fetch")
+@Description("A scraper fetching its list page and the details of unknown posts")
+@Category({"Rentbot", "Scraper"})
+@StackTrace(false)
+class ScraperFetchEvent extends Event {
+    @Label("Source")
+    String source;
+    @Label("Items")
+    int items;
+    @Label("Outcome")
+    String outcome;
+}
@@ -2,6 +2,9 @@ package com.joklek.rentbot.bot;
 
 import com.joklek.rentbot.entities.SentMessage;
 import com.joklek.rentbot.entities.User;
+import com.joklek.rentbot.notification.BlockedChatHandler;
+import com.joklek.rentbot.notification.SendFailure;
+import com.joklek.rentbot.notification.TelegramMetrics;
 import com.joklek.rentbot.repo.SentMessageRepo;
 import com.joklek.rentbot.repo.UserRepo;
 import com.pengrad.telegrambot.Callback;
@@ -14,28 +17,38 @@ import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
 @Component
 public class UpdateListener {
     private static final Logger LOGGER = getLogger(UpdateListener.class);
+    private static final int MAX_SEND_ATTEMPTS = 3;
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(2);
+    private static final String METRICS_SOURCE = "command";
 
     private final CommandRecognizer commandRecognizer;
     private final CallbackRecognizer callbackRecognizer;
     private final ReplyRecognizer replyRecognizer;
     private final UserRepo users;
     private final SentMessageRepo replyableMessages;
+    private final BlockedChatHandler blockedChats;
+    private final TelegramMetrics metrics;
     private String botName;
 
-    public UpdateListener(CommandRecognizer commandRecognizer, CallbackRecognizer callbackRecognizer, ReplyRecognizer replyRecognizer, UserRepo users, SentMessageRepo replyableMessages) {
+    public UpdateListener(CommandRecognizer commandRecognizer, CallbackRecognizer callbackRecognizer, ReplyRecognizer replyRecognizer, UserRepo users, SentMessageRepo replyableMessages, BlockedChatHandler blockedChats, TelegramMetrics metrics) {
         this.commandRecognizer = commandRecognizer;
         this.callbackRecognizer = callbackRecognizer;
         this.replyRecognizer = replyRecognizer;
         this.users = users;
         this.replyableMessages = replyableMessages;
+        this.blockedChats = blockedChats;
+        this.metrics = metrics;
     }
 
     public int process(TelegramBot bot, List<Update> updates) {
@@ -69,20 +82,48 @@ public class UpdateListener {
         }
         var payload = commandRecognizer.getPayload(command);
         var messages = handler.handle(update, payload);
+        var chatId = update.message().chat().id();
 
-        messages.forEach(request -> bot.execute(request, new Callback<SendMessage, SendResponse>() {
+        messages.forEach(request -> send(bot, chatId, request, 1));
+    }
+
+    private void send(TelegramBot bot, Long chatId, SendMessage message, int attempt) {
+        var send = metrics.start(METRICS_SOURCE, chatId);
+        bot.execute(message, new Callback<SendMessage, SendResponse>() {
             @Override
             public void onResponse(SendMessage request, SendResponse response) {
-                if (!response.isOk()) {
-                    LOGGER.error("Failed to send message: {}", response.description());
+                if (response.isOk()) {
+                    send.ok();
+                } else {
+                    var failure = SendFailure.of(response);
+                    send.failed(failure);
+                    handleFailure(bot, chatId, request, attempt, failure);
                 }
             }
 
             @Override
             public void onFailure(SendMessage request, IOException e) {
-                LOGGER.error("Failed to send message", e);
+                var failure = SendFailure.of(e);
+                send.failed(failure);
+                handleFailure(bot, chatId, request, attempt, failure);
             }
-        }));
+        });
+    }
+
+    private void handleFailure(TelegramBot bot, Long chatId, SendMessage message, int attempt, SendFailure failure) {
+        if (failure.type() == SendFailure.Type.BLOCKED) {
+            blockedChats.onBlocked(chatId, failure.description());
+            return;
+        }
+        if (!failure.isRetryable() || attempt >= MAX_SEND_ATTEMPTS) {
+            LOGGER.error("Failed to send message to {}, giving up: {}", chatId, failure.description());
+            return;
+        }
+        var delay = failure.retryAfter().orElse(RETRY_DELAY.multipliedBy(attempt));
+        LOGGER.warn("Failed to send message to {}, retrying in {}: {}", chatId, delay, failure.description());
+        metrics.retried(METRICS_SOURCE, failure.type());
+        CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS)
+                .execute(() -> send(bot, chatId, message, attempt + 1));
     }
 
     private void handleCallback(TelegramBot bot, Update update) {
@@ -27,6 +27,7 @@ public class DisableCommand implements Command {
         var telegramId = update.message().chat().id();
         var user = users.getByTelegramId(telegramId);
         user.setEnabled(false);
+        users.save(user);
 
         return simpleFinalResponse(update, "Scanning disabled!");
     }
@@ -31,6 +31,7 @@ public class EnableCommand implements Command {
         }
 
         user.setEnabled(true);
+        users.save(user);
         return simpleFinalResponse(update, "Scanning enabled!");
     }
 }
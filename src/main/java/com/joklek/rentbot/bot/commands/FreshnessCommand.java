@@ -0,0 +1,76 @@
+package com.joklek.rentbot.bot.commands;
+
+import com.joklek.rentbot.notification.FreshnessReport;
+import com.pengrad.telegrambot.model.Update;
+import com.pengrad.telegrambot.request.SendMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+@Component
+public class FreshnessCommand implements Command {
+
+    private static final int DEFAULT_DAYS = 7;
+    private static final int MAX_DAYS = 30;
+
+    private final FreshnessReport freshnessReport;
+    private final Set<Long> adminIds;
+
+    public FreshnessCommand(FreshnessReport freshnessReport, @Value("${application.telegram.admin-ids}") Set<Long> adminIds) {
+        this.freshnessReport = freshnessReport;
+        this.adminIds = adminIds;
+    }
+
+    @Override
+    public String command() {
+        return "/freshness";
+    }
+
+    @Override
+    public List<SendMessage> handle(Update update, String payload) {
+        if (!adminIds.contains(update.message().chat().id())) {
+            return List.of();
+        }
+        var days = parseDays(payload);
+        var report = freshnessReport.since(LocalDateTime.now().minusDays(days));
+        if (report.isEmpty()) {
+            return simpleFinalResponse(update, String.format("No posts delivered in the last %d days", days));
+        }
+
+        var text = new StringBuilder(String.format("Time from post seen to delivered, last %d days\n```\n", days));
+        report.forEach((source, freshness) -> {
+            text.append(String.format("%s n=%d p50=%s p90=%s p99=%s max=%s\n", source, freshness.count(),
+                    format(freshness.p50()), format(freshness.p90()), format(freshness.p99()), format(freshness.max())));
+            var buckets = FreshnessReport.BUCKETS;
+            for (var i = 0; i < buckets.size(); i++) {
+                text.append(String.format("  <=%s %d\n", format(buckets.get(i)), freshness.histogram().get(i)));
+            }
+            text.append(String.format("  >%s %d\n", format(buckets.get(buckets.size() - 1)), freshness.histogram().get(buckets.size())));
+        });
+        text.append("```");
+        return simpleFinalResponse(update, text.toString());
+    }
+
+    private int parseDays(String payload) {
+        try {
+            var days = Integer.parseInt(payload);
+            return days > 0 ? Math.min(days, MAX_DAYS) : DEFAULT_DAYS;
+        } catch (NumberFormatException e) {
+            return DEFAULT_DAYS;
+        }
+    }
+
+    private String format(Duration duration) {
+        if (duration.toMinutes() < 1) {
+            return duration.toSeconds() + "s";
+        }
+        if (duration.toHours() < 1) {
+            return String.format("%dm%02ds", duration.toMinutes(), duration.toSecondsPart());
+        }
+        return String.format("%dh%02dm", duration.toHours(), duration.toMinutesPart());
+    }
+}
@@ -0,0 +1,83 @@
+package com.joklek.rentbot.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.unit.DataSize;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+// SQLite allows a single writer, so writing transactions share one connection and wait in the pool instead of on busy locks.
+// In WAL mode readers don't block on it, bot lookups keep going while a scrape cycle writes
+@Configuration
+public class DataSourceConfig {
+
+    private final String url;
+    private final Duration busyTimeout;
+    private final DataSize cacheSize;
+    private final DataSize mmapSize;
+
+    public DataSourceConfig(@Value("${spring.datasource.url}") String url,
+                            @Value("${application.datasource.busy-timeout}") Duration busyTimeout,
+                            @Value("${application.datasource.cache-size}") DataSize cacheSize,
+                            @Value("${application.datasource.mmap-size}") DataSize mmapSize) {
+        this.url = url;
+        this.busyTimeout = busyTimeout;
+        this.cacheSize = cacheSize;
+        this.mmapSize = mmapSize;
+    }
+
+    // Takes the write lock when the transaction begins, so it never has to upgrade a read lock halfway and fail with SQLITE_BUSY
+    @Bean
+    public HikariDataSource sqliteWriter() {
+        return pool("sqlite-writer", 1, SQLiteConfig.TransactionMode.IMMEDIATE);
+    }
+
+    // Not opened read-only: Flyway and other writes outside a Spring transaction land here and wait for the lock with busy_timeout
+    @Bean
+    public HikariDataSource sqliteReaders(@Value("${application.datasource.readers}") int readers) {
+        return pool("sqlite-reader", readers, SQLiteConfig.TransactionMode.DEFERRED);
+    }
+
+    // Lazy, because the routing decision needs the transaction's read-only flag, which is only known after it has begun
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("sqliteWriter") HikariDataSource writer, @Qualifier("sqliteReaders") HikariDataSource readers) {
+        var routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(ReadWriteRoutingDataSource.Route.WRITE, writer, ReadWriteRoutingDataSource.Route.READ, readers));
+        routing.setDefaultTargetDataSource(readers);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private HikariDataSource pool(String name, int size, SQLiteConfig.TransactionMode transactionMode) {
+        var sqliteConfig = new SQLiteConfig();
+        sqliteConfig.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        // Durable across application crashes, only a power loss can drop the last commits
+        sqliteConfig.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        sqliteConfig.setBusyTimeout((int) busyTimeout.toMillis());
+        // Negative cache_size is in KiB rather than pages
+        sqliteConfig.setCacheSize((int) -cacheSize.toKilobytes());
+        sqliteConfig.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(mmapSize.toBytes()));
+        sqliteConfig.setTempStore(SQLiteConfig.TempStore.MEMORY);
+        sqliteConfig.setTransactionMode(transactionMode);
+        var sqlite = new SQLiteDataSource(sqliteConfig);
+        sqlite.setUrl(url);
+
+        var hikariConfig = new HikariConfig();
+        hikariConfig.setPoolName(name);
+        hikariConfig.setDataSource(sqlite);
+        hikariConfig.setMaximumPoolSize(size);
+        hikariConfig.setMinimumIdle(size);
+        return new HikariDataSource(hikariConfig);
+    }
+}
@@ -1,17 +1,22 @@
 package com.joklek.rentbot.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.net.http.HttpClient;
+import java.time.Duration;
 
 @Configuration
 public class HttpClientConfig {
 
+    // Shared by all scrapers, so connections to the portals are kept alive and reused between cycles
     @Bean
-    public HttpClient client() {
+    public HttpClient client(@Value("${application.scraper.http.connect-timeout}") Duration connectTimeout) {
         return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
                 .followRedirects(HttpClient.Redirect.NORMAL)
                 .build();
     }
@@ -0,0 +1,100 @@
+package com.joklek.rentbot.entities;
+
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+// SHA-256 of the description with \s removed and control characters trimmed, hashed as UTF-8
+@Component
+public class DescriptionHasher {
+    private static final int BUFFER_SIZE = 512;
+
+    private final ThreadLocal<HashState> states = ThreadLocal.withInitial(HashState::new);
+
+    public String hash(String description) {
+        var start = 0;
+        var end = description.length();
+        while (start < end && description.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && description.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        var state = states.get();
+        for (var i = start; i < end; i++) {
+            var c = description.charAt(i);
+            if (isWhitespace(c)) {
+                continue;
+            }
+            if (Character.isHighSurrogate(c)) {
+                // Removed whitespace could have split a surrogate pair
+                var next = i + 1;
+                while (next < end && isWhitespace(description.charAt(next))) {
+                    next++;
+                }
+                if (next < end && Character.isLowSurrogate(description.charAt(next))) {
+                    state.put(Character.toCodePoint(c, description.charAt(next)));
+                    i = next;
+                } else {
+                    state.put('?');
+                }
+            } else if (Character.isLowSurrogate(c)) {
+                state.put('?');
+            } else {
+                state.put(c);
+            }
+        }
+        return Base64.getEncoder().encodeToString(state.digest());
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static class HashState {
+        private final MessageDigest digest;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int length;
+
+        HashState() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        void put(int codePoint) {
+            if (length > BUFFER_SIZE - 4) {
+                flush();
+            }
+            if (codePoint < 0x80) {
+                buffer[length++] = (byte) codePoint;
+            } else if (codePoint < 0x800) {
+                buffer[length++] = (byte) (0xC0 | (codePoint >> 6));
+                buffer[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (codePoint < 0x10000) {
+                buffer[length++] = (byte) (0xE0 | (codePoint >> 12));
+                buffer[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                buffer[length++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            }
+        }
+
+        byte[] digest() {
+            flush();
+            return digest.digest();
+        }
+
+        private void flush() {
+            digest.update(buffer, 0, length);
+            length = 0;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.joklek.rentbot.entities;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+// Descriptions are scanned once by an Aho-Corasick automaton that finds the exact keywords and the literals
+// every fee pattern needs. Regexes only run when their literal was seen, most descriptions never get that far
+@Component
+public class FeeDetector {
+
+    private static final List<String> FEE_KEYWORDS = List.of(
+            "(ira mokestis)",
+            "mokestis (jei butas",
+            "\ntaikomas tarpininkavimas",
+            "tiks vienkartinis tarpinink"
+    );
+
+    private static final List<FeePattern> FEE_PATTERNS = List.of(
+            new FeePattern("(agent|tarpinink|vienkart)\\S+ mokestis[\\s:-]{0,3}\\d+", "mokestis"),
+            new FeePattern("\\d+\\s?\\S+ (agent|tarpinink|vienkart)\\S+ (tarp|mokest)\\S+", "agent", "tarpinink", "vienkart"),
+            new FeePattern("\\W(ira|bus) (taikoma(s|)|imama(s|)|vienkartinis|agent\\S+)( vienkartinis|) (agent|tarpinink|mokest)\\S+", "agent", "tarpinink", "mokest"),
+            new FeePattern("\\Wtiks[^\\s\\w]?\\s?(bus|ira|) (taikoma(s|)|imama(s|))", "tiks"),
+            new FeePattern("\\W(ira |)(taikoma(s|)|imama(s|)|vienkartinis|sutarties)( sutarties|) sudar\\S+ mokestis", "sudar"),
+            new FeePattern("(ui|ir) (ira |)(taikoma(s|)|imama(s|)) (vienkart|agent|tarpinink|mokest)\\S+", "taikoma", "imama"),
+            new FeePattern("(vienkartinis |)(agent|tarpinink)\\S+ mokest\\S+,? jei", "agent", "tarpinink"),
+            new FeePattern("[^\\w\\s](\\s|)(taikoma(s|)|imama(s|)|vienkartinis|agent\\S+)( vienkartinis|) (agent|tarpinink|mokest)\\S+", "agent", "tarpinink", "mokest")
+    );
+
+    private final Automaton automaton = new Automaton();
+
+    public boolean isWithFees(String description) {
+        var text = new SimplifiedText(description);
+        var patternsToRun = automaton.scan(text);
+        if (patternsToRun < 0) {
+            return true;
+        }
+        for (var i = 0; i < FEE_PATTERNS.size(); i++) {
+            if ((patternsToRun & (1L << i)) != 0 && FEE_PATTERNS.get(i).pattern().matcher(text).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Lithuanian letters are written without diacritics and y as i, because some people are bad at writing
+    static char simplify(char c) {
+        return switch (c) {
+            case 'ą' -> 'a';
+            case 'č' -> 'c';
+            case 'ę', 'ė' -> 'e';
+            case 'į', 'y' -> 'i';
+            case 'š' -> 's';
+            case 'ų', 'ū' -> 'u';
+            case 'ž' -> 'z';
+            default -> c;
+        };
+    }
+
+    // Patterns are case insensitive for ASCII only, so that is all the automaton folds
+    private static char foldCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private record FeePattern(Pattern pattern, List<String> literals) {
+        FeePattern(String regex, String... literals) {
+            this(Pattern.compile(regex, Pattern.CASE_INSENSITIVE), List.of(literals));
+        }
+    }
+
+    // The simplified description, computed char by char instead of copying the whole string
+    private record SimplifiedText(String original) implements CharSequence {
+        @Override
+        public int length() {
+            return original.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return simplify(original.charAt(index));
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new SimplifiedText(original.substring(start, end));
+        }
+
+        @Override
+        public String toString() {
+            var chars = new char[original.length()];
+            for (var i = 0; i < chars.length; i++) {
+                chars[i] = charAt(i);
+            }
+            return new String(chars);
+        }
+    }
+
+    private static class Automaton {
+        private static final int ALPHABET = 128;
+
+        private final List<String> words = new ArrayList<>();
+        // Bits of the fee patterns a word unlocks, 0 for fee keywords
+        private final List<Long> wordPatterns = new ArrayList<>();
+        private long[] patternsOfWord;
+        private int[][] transitions;
+        private int[][] outputs;
+
+        Automaton() {
+            FEE_KEYWORDS.forEach(keyword -> addWord(keyword, 0));
+            for (var i = 0; i < FEE_PATTERNS.size(); i++) {
+                for (var literal : FEE_PATTERNS.get(i).literals()) {
+                    addWord(literal, 1L << i);
+                }
+            }
+            build();
+        }
+
+        private void addWord(String word, long patterns) {
+            words.add(word);
+            wordPatterns.add(patterns);
+        }
+
+        private void build() {
+            var goTo = new ArrayList<int[]>();
+            var wordsEndingAt = new ArrayList<List<Integer>>();
+            goTo.add(emptyRow());
+            wordsEndingAt.add(new ArrayList<>());
+            for (var w = 0; w < words.size(); w++) {
+                var state = 0;
+                for (var c : words.get(w).toCharArray()) {
+                    if (goTo.get(state)[c] < 0) {
+                        goTo.get(state)[c] = goTo.size();
+                        goTo.add(emptyRow());
+                        wordsEndingAt.add(new ArrayList<>());
+                    }
+                    state = goTo.get(state)[c];
+                }
+                wordsEndingAt.get(state).add(w);
+            }
+
+            // Breadth first, so the fallback of every state is finished before its children need it
+            var fail = new int[goTo.size()];
+            var queue = new ArrayDeque<Integer>();
+            for (var c = 0; c < ALPHABET; c++) {
+                if (goTo.get(0)[c] < 0) {
+                    goTo.get(0)[c] = 0;
+                } else {
+                    queue.add(goTo.get(0)[c]);
+                }
+            }
+            while (!queue.isEmpty()) {
+                var state = queue.poll();
+                wordsEndingAt.get(state).addAll(wordsEndingAt.get(fail[state]));
+                for (var c = 0; c < ALPHABET; c++) {
+                    var next = goTo.get(state)[c];
+                    if (next < 0) {
+                        goTo.get(state)[c] = goTo.get(fail[state])[c];
+                    } else {
+                        fail[next] = goTo.get(fail[state])[c];
+                        queue.add(next);
+                    }
+                }
+            }
+
+            patternsOfWord = wordPatterns.stream().mapToLong(Long::longValue).toArray();
+            transitions = goTo.toArray(int[][]::new);
+            outputs = wordsEndingAt.stream()
+                    .map(ends -> ends.stream().mapToInt(Integer::intValue).toArray())
+                    .toArray(int[][]::new);
+        }
+
+        private static int[] emptyRow() {
+            var row = new int[ALPHABET];
+            Arrays.fill(row, -1);
+            return row;
+        }
+
+        // Returns -1 when a fee keyword is found, otherwise bits of the patterns whose literals were seen
+        long scan(CharSequence text) {
+            var patterns = 0L;
+            var state = 0;
+            for (var i = 0; i < text.length(); i++) {
+                var c = foldCase(text.charAt(i));
+                state = c < ALPHABET ? transitions[state][c] : 0;
+                for (var w : outputs[state]) {
+                    if (patternsOfWord[w] != 0) {
+                        patterns |= patternsOfWord[w];
+                    } else if (isExactly(text, i + 1 - words.get(w).length(), words.get(w))) {
+                        return -1;
+                    }
+                }
+            }
+            return patterns;
+        }
+
+        // Keywords are case sensitive, the automaton only found them ignoring case
+        private static boolean isExactly(CharSequence text, int start, String word) {
+            for (var j = 0; j < word.length(); j++) {
+                if (text.charAt(start + j) != word.charAt(j)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.joklek.rentbot.entities;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+// Finds the number written after the street name, the same as matching
+// quote(street) + " ?(\d{1,3}[A-Z]?)(\s|(-\d)|\.|,|;|!|$)" ignoring ASCII case, without compiling a regex per post
+@Component
+public class HouseNumberExtractor {
+
+    public Optional<String> extract(String description, String street) {
+        return new StreetMatcher(foldCase(street)).find(description);
+    }
+
+    private static String foldCase(String text) {
+        var chars = text.toCharArray();
+        for (var i = 0; i < chars.length; i++) {
+            chars[i] = foldCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static char foldCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c) {
+        var folded = foldCase(c);
+        return folded >= 'a' && folded <= 'z';
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    // Regex $ also matches before a line terminator that ends the input
+    private static boolean isFinalLineTerminator(String text, int index) {
+        var c = text.charAt(index);
+        return index == text.length() - 1 && (c == '\u0085' || c == '\u2028' || c == '\u2029');
+    }
+
+    private record StreetMatcher(String street) {
+
+        Optional<String> find(String description) {
+            var last = description.length() - street.length();
+            for (var start = 0; start <= last; start++) {
+                if (startsWithStreet(description, start)) {
+                    var number = numberAfter(description, start + street.length());
+                    if (number.isPresent()) {
+                        return number;
+                    }
+                }
+            }
+            return Optional.empty();
+        }
+
+        private boolean startsWithStreet(String description, int start) {
+            for (var i = 0; i < street.length(); i++) {
+                if (foldCase(description.charAt(start + i)) != street.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Digits and letters never end a number, so there is nothing to backtrack into
+        private static Optional<String> numberAfter(String description, int index) {
+            if (index < description.length() && description.charAt(index) == ' ') {
+                index++;
+            }
+            var numberStart = index;
+            while (index < description.length() && index - numberStart < 3 && isDigit(description.charAt(index))) {
+                index++;
+            }
+            if (index == numberStart) {
+                return Optional.empty();
+            }
+            if (index < description.length() && isLetter(description.charAt(index))) {
+                index++;
+            }
+            if (!isNumberEnd(description, index)) {
+                return Optional.empty();
+            }
+            return Optional.of(description.substring(numberStart, index));
+        }
+
+        private static boolean isNumberEnd(String description, int index) {
+            if (index == description.length()) {
+                return true;
+            }
+            var c = description.charAt(index);
+            return isWhitespace(c)
+                    || c == '.' || c == ',' || c == ';' || c == '!'
+                    || (c == '-' && index + 1 < description.length() && isDigit(description.charAt(index + 1)))
+                    || isFinalLineTerminator(description, index);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.joklek.rentbot.entities;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+
+@Entity
+@Table(name = "notifications")
+public class Notification {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "post_id")
+    private Post post;
+    @NotNull
+    private Long telegramId;
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private State state;
+    @NotNull
+    private Integer attempts;
+    @NotNull
+    private LocalDateTime nextAttemptAt;
+    @NotNull
+    private LocalDateTime createdAt;
+    private String lastError;
+    private LocalDateTime deliveredAt;
+
+    public Notification(Post post, Long telegramId) {
+        this.post = post;
+        this.telegramId = telegramId;
+        this.state = State.PENDING;
+        this.attempts = 0;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = createdAt;
+    }
+
+    public Notification() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public @NotNull Post getPost() {
+        return post;
+    }
+
+    public @NotNull Long getTelegramId() {
+        return telegramId;
+    }
+
+    public @NotNull State getState() {
+        return state;
+    }
+
+    public Notification setState(@NotNull State state) {
+        this.state = state;
+        return this;
+    }
+
+    public @NotNull Integer getAttempts() {
+        return attempts;
+    }
+
+    public @NotNull LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public @NotNull LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Optional<String> getLastError() {
+        return Optional.ofNullable(lastError);
+    }
+
+    public Optional<LocalDateTime> getDeliveredAt() {
+        return Optional.ofNullable(deliveredAt);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        var notification = (Notification) o;
+        return this.id != null &&
+                Objects.equals(this.id, notification.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31;
+    }
+
+    public enum State {
+        PENDING,
+        SENT,
+        FAILED
+    }
+}
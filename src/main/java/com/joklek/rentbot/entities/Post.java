@@ -22,6 +22,7 @@ public class Post {
     private String phone;
     @NotNull
     private LocalDateTime createdAt;
+    private LocalDateTime firstSeenAt;
     private BigDecimal price;
     private Integer rooms;
     private Integer constructionYear;
@@ -82,6 +83,14 @@ public class Post {
         this.createdAt = lastSeen;
     }
 
+    public Optional<LocalDateTime> getFirstSeenAt() {
+        return Optional.ofNullable(firstSeenAt);
+    }
+
+    public void setFirstSeenAt(LocalDateTime firstSeenAt) {
+        this.firstSeenAt = firstSeenAt;
+    }
+
     public Optional<BigDecimal> getPrice() {
         return Optional.ofNullable(price);
     }
@@ -0,0 +1,20 @@
+package com.joklek.rentbot.entities;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("rentbot.PostConversion")
+@Label("Post Conversion")
+@Category({"Rentbot", "Publishing"})
+@StackTrace(false)
+class PostConversionEvent extends Event {
+    @Label("Source")
+    String source;
+    @Label("External Id")
+    String externalId;
+    @Label("Description Length")
+    int descriptionLength;
+}
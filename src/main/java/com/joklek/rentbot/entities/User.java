@@ -4,12 +4,10 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import org.springframework.data.domain.DomainEvents;
 
 import java.math.BigDecimal;
-import java.util.HashSet;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 
 
 @Entity
@@ -181,6 +179,11 @@ public class User {
         return this;
     }
 
+    @DomainEvents
+    Collection<UserSettingsChanged> settingsChanged() {
+        return List.of(new UserSettingsChanged(telegramId));
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -0,0 +1,4 @@
+package com.joklek.rentbot.entities;
+
+public record UserSettingsChanged(long telegramId) {
+}
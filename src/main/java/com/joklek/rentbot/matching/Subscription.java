@@ -0,0 +1,85 @@
+package com.joklek.rentbot.matching;
+
+import com.joklek.rentbot.entities.District;
+import com.joklek.rentbot.entities.Post;
+import com.joklek.rentbot.entities.User;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+record Subscription(long telegramId,
+                    BigDecimal priceMin,
+                    BigDecimal priceMax,
+                    Integer roomsMin,
+                    Integer roomsMax,
+                    Integer areaMin,
+                    Integer yearMin,
+                    Integer floorMin,
+                    boolean showWithFees,
+                    boolean filterByDistrict,
+                    Set<String> districts) {
+
+    static Subscription of(User user) {
+        return new Subscription(
+                user.getTelegramId(),
+                user.getPriceMin().orElse(null),
+                user.getPriceMax().orElse(null),
+                user.getRoomsMin().orElse(null),
+                user.getRoomsMax().orElse(null),
+                user.getAreaMin().orElse(null),
+                user.getYearMin().orElse(null),
+                user.getFloorMin().orElse(null),
+                user.getShowWithFees(),
+                user.getFilterByDistrict(),
+                user.getDistricts().stream()
+                        .map(District::getName)
+                        .map(Subscription::normalizeDistrict)
+                        .collect(Collectors.toUnmodifiableSet())
+        );
+    }
+
+    static String normalizeDistrict(String district) {
+        return district.toLowerCase(Locale.ROOT);
+    }
+
+    // Same rules as the old UserRepo queries: a post missing a value passes that filter
+    boolean matches(Post post, String knownDistrict) {
+        var price = post.getPrice().orElse(null);
+        if (price == null) {
+            if (priceMin != null || priceMax != null) {
+                return false;
+            }
+        } else if ((priceMin != null && price.compareTo(priceMin) < 0) || (priceMax != null && price.compareTo(priceMax) > 0)) {
+            return false;
+        }
+
+        var rooms = post.getRooms().orElse(null);
+        if (rooms != null && ((roomsMin != null && rooms < roomsMin) || (roomsMax != null && rooms > roomsMax))) {
+            return false;
+        }
+
+        var year = post.getConstructionYear().orElse(null);
+        if (year != null && yearMin != null && year < yearMin) {
+            return false;
+        }
+
+        var floor = post.getFloor().orElse(null);
+        if (floor != null && floorMin != null && floor < floorMin) {
+            return false;
+        }
+
+        var area = post.getArea().map(a -> a.toBigInteger().intValue()).orElse(null);
+        if (area != null && areaMin != null && area < areaMin) {
+            return false;
+        }
+
+        if (post.getWithFees() && !showWithFees) {
+            return false;
+        }
+
+        // Posts from districts we don't know about are sent to everyone
+        return knownDistrict == null || !filterByDistrict || districts.contains(knownDistrict);
+    }
+}
@@ -0,0 +1,131 @@
+package com.joklek.rentbot.matching;
+
+import com.joklek.rentbot.entities.District;
+import com.joklek.rentbot.entities.Post;
+import com.joklek.rentbot.entities.User;
+import com.joklek.rentbot.entities.UserSettingsChanged;
+import com.joklek.rentbot.repo.DistrictRepo;
+import com.joklek.rentbot.repo.UserRepo;
+import org.slf4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+@Component
+public class SubscriptionMatcher {
+    private static final Logger LOGGER = getLogger(SubscriptionMatcher.class);
+
+    private final UserRepo users;
+    private final DistrictRepo districts;
+    private final Map<Long, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private volatile Set<String> knownDistricts = Set.of();
+
+    public SubscriptionMatcher(UserRepo users, DistrictRepo districts) {
+        this.users = users;
+        this.districts = districts;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void warmUp() {
+        knownDistricts = districts.findAll().stream()
+                .map(District::getName)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toUnmodifiableSet());
+        subscriptions.clear();
+        users.findAllByEnabledTrue().forEach(user -> subscriptions.put(user.getTelegramId(), Subscription.of(user)));
+        LOGGER.info("Loaded {} subscriptions", subscriptions.size());
+    }
+
+    // Only committed settings are applied. The save's transaction is finished but still holds its connection,
+    // so the user is read in a new read-only one, which doesn't wait for the single writer connection
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void refresh(UserSettingsChanged event) {
+        users.findByTelegramId(event.telegramId())
+                .filter(User::getEnabled)
+                .map(Subscription::of)
+                .ifPresentOrElse(
+                        subscription -> subscriptions.put(event.telegramId(), subscription),
+                        () -> subscriptions.remove(event.telegramId()));
+    }
+
+    // Posts are sorted by price once, then every subscription only looks at the posts inside its price range.
+    // The few that match are put back in scrape order
+    public Map<Long, List<Post>> matchAll(List<Post> posts) {
+        var postDistricts = posts.stream().map(this::getKnownDistrict).toList();
+        var priced = new ArrayList<Integer>();
+        var unpriced = new ArrayList<Integer>();
+        for (var i = 0; i < posts.size(); i++) {
+            (posts.get(i).getPrice().isPresent() ? priced : unpriced).add(i);
+        }
+        priced.sort(Comparator.comparing(i -> posts.get(i).getPrice().orElseThrow()));
+        var byPrice = priced.stream().mapToInt(Integer::intValue).toArray();
+        var prices = priced.stream().map(i -> posts.get(i).getPrice().orElseThrow()).toArray(BigDecimal[]::new);
+
+        var interested = new LinkedHashMap<Long, List<Post>>();
+        for (var subscription : subscriptions.values()) {
+            var from = subscription.priceMin() == null ? 0 : firstNotBelow(prices, subscription.priceMin());
+            var to = subscription.priceMax() == null ? prices.length : firstAbove(prices, subscription.priceMax());
+            var matching = new ArrayList<Integer>();
+            for (var i = from; i < to; i++) {
+                if (subscription.matches(posts.get(byPrice[i]), postDistricts.get(byPrice[i]))) {
+                    matching.add(byPrice[i]);
+                }
+            }
+            // Posts without a price only go to subscriptions without a price range, scrapes don't publish them anyway
+            if (!unpriced.isEmpty() && subscription.priceMin() == null && subscription.priceMax() == null) {
+                unpriced.stream()
+                        .filter(i -> subscription.matches(posts.get(i), postDistricts.get(i)))
+                        .forEach(matching::add);
+            }
+            if (!matching.isEmpty()) {
+                matching.sort(null);
+                interested.put(subscription.telegramId(), matching.stream().map(posts::get).toList());
+            }
+        }
+        return interested;
+    }
+
+    private String getKnownDistrict(Post post) {
+        return post.getDistrict()
+                .filter(knownDistricts::contains)
+                .map(Subscription::normalizeDistrict)
+                .orElse(null);
+    }
+
+    // Everything that fits is at the start of the sorted array, so only the boundary has to be found
+    private static <T> int countFitting(T[] sorted, Predicate<T> fits) {
+        var low = 0;
+        var high = sorted.length;
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            if (fits.test(sorted[middle])) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int firstNotBelow(BigDecimal[] sorted, BigDecimal price) {
+        return countFitting(sorted, value -> value.compareTo(price) < 0);
+    }
+
+    private static int firstAbove(BigDecimal[] sorted, BigDecimal price) {
+        return countFitting(sorted, value -> value.compareTo(price) <= 0);
+    }
+}
@@ -0,0 +1,35 @@
+package com.joklek.rentbot.notification;
+
+import com.joklek.rentbot.repo.NotificationRepo;
+import com.joklek.rentbot.repo.UserRepo;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Component;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+@Component
+public class BlockedChatHandler {
+    private static final Logger LOGGER = getLogger(BlockedChatHandler.class);
+
+    private final UserRepo users;
+    private final NotificationRepo notifications;
+
+    public BlockedChatHandler(UserRepo users, NotificationRepo notifications) {
+        this.users = users;
+        this.notifications = notifications;
+    }
+
+    // Saving the user also drops its subscription, so no new notifications are created for the chat
+    @Transactional
+    public void onBlocked(Long telegramId, String reason) {
+        users.findByTelegramId(telegramId)
+                .filter(user -> user.getEnabled())
+                .ifPresent(user -> {
+                    LOGGER.info("Disabling user {}, bot was blocked", telegramId);
+                    user.setEnabled(false);
+                    users.save(user);
+                });
+        notifications.failPendingForChat(telegramId, reason);
+    }
+}
@@ -0,0 +1,59 @@
+package com.joklek.rentbot.notification;
+
+import com.joklek.rentbot.repo.NotificationRepo;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Time from a post first being scraped to it being delivered, per source and across all of them.
+// Percentiles are nearest rank, so every one of them is a delivery that actually happened
+@Component
+public class FreshnessReport {
+    public static final String ALL_SOURCES = "ALL";
+    // Upper bounds of the histogram buckets, the last count holds everything slower. Also the SLOs of the freshness timer
+    public static final List<Duration> BUCKETS = List.of(Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofMinutes(15), Duration.ofHours(1), Duration.ofHours(6));
+    private static final String UPPER_BOUNDS = BUCKETS.stream()
+            .map(bucket -> String.valueOf(bucket.toMillis()))
+            .collect(Collectors.joining(",", "[", "]"));
+
+    private final NotificationRepo notifications;
+
+    public FreshnessReport(NotificationRepo notifications) {
+        this.notifications = notifications;
+    }
+
+    // Both queries read the same snapshot, so the histogram adds up to the count
+    @Transactional(readOnly = true)
+    public Map<String, Freshness> since(LocalDateTime since) {
+        var histograms = new HashMap<String, Integer[]>();
+        notifications.countFreshnessSince(since, ALL_SOURCES, UPPER_BOUNDS).forEach(bucket -> histograms
+                .computeIfAbsent(bucket.getSource(), source -> emptyHistogram())[bucket.getBucket()] = bucket.getCount().intValue());
+
+        var report = new LinkedHashMap<String, Freshness>();
+        notifications.summarizeFreshnessSince(since, ALL_SOURCES).forEach(row -> report.put(row.getSource(), new Freshness(
+                row.getCount().intValue(),
+                Duration.ofMillis(row.getP50()),
+                Duration.ofMillis(row.getP90()),
+                Duration.ofMillis(row.getP99()),
+                Duration.ofMillis(row.getMax()),
+                List.of(histograms.getOrDefault(row.getSource(), emptyHistogram())))));
+        return report;
+    }
+
+    private static Integer[] emptyHistogram() {
+        var histogram = new Integer[BUCKETS.size() + 1];
+        Arrays.fill(histogram, 0);
+        return histogram;
+    }
+
+    public record Freshness(int count, Duration p50, Duration p90, Duration p99, Duration max, List<Integer> histogram) {
+    }
+}
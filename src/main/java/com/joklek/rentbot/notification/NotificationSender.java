@@ -0,0 +1,218 @@
+package com.joklek.rentbot.notification;
+
+import com.joklek.rentbot.bot.PostResponseCreator;
+import com.joklek.rentbot.entities.Notification;
+import com.joklek.rentbot.repo.NotificationRepo;
+import com.pengrad.telegrambot.Callback;
+import com.pengrad.telegrambot.TelegramBot;
+import com.pengrad.telegrambot.request.SendMessage;
+import com.pengrad.telegrambot.response.SendResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+@Profile("!test")
+@Component
+public class NotificationSender {
+    private static final Logger LOGGER = getLogger(NotificationSender.class);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private final TelegramBot bot;
+    private final NotificationRepo notifications;
+    private final PostResponseCreator postResponseCreator;
+    private final BlockedChatHandler blockedChats;
+    private final TelegramMetrics metrics;
+    private final RateLimiter rateLimiter;
+    private final int batchSize;
+    private final int perChat;
+    private final int maxAttempts;
+    private final Duration maxThrottledAge;
+    private final Duration pollInterval;
+    private final DelayQueue<Outgoing> queue = new DelayQueue<>();
+    private final Set<Long> inFlight = new HashSet<>();
+    private final Queue<Long> finished = new ConcurrentLinkedQueue<>();
+    private Thread dispatcher;
+
+    public NotificationSender(TelegramBot bot, NotificationRepo notifications, PostResponseCreator postResponseCreator, BlockedChatHandler blockedChats, TelegramMetrics metrics,
+                              @Value("${application.telegram.rate-limit.global-per-second}") int globalPerSecond,
+                              @Value("${application.telegram.rate-limit.chat-interval}") Duration chatInterval,
+                              @Value("${application.notifications.batch-size}") int batchSize,
+                              @Value("${application.notifications.max-attempts}") int maxAttempts,
+                              @Value("${application.notifications.max-throttled-age}") Duration maxThrottledAge,
+                              @Value("${application.notifications.poll-interval}") Duration pollInterval) {
+        this.bot = bot;
+        this.notifications = notifications;
+        this.postResponseCreator = postResponseCreator;
+        this.blockedChats = blockedChats;
+        this.metrics = metrics;
+        this.rateLimiter = new RateLimiter(globalPerSecond, chatInterval, System.nanoTime());
+        this.batchSize = batchSize;
+        // Enough to keep a chat busy until the next load, more would only sit in the queue
+        this.perChat = (int) Math.max(1, pollInterval.toNanos() / Math.max(1, chatInterval.toNanos()) + 1);
+        this.maxAttempts = maxAttempts;
+        this.maxThrottledAge = maxThrottledAge;
+        this.pollInterval = pollInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        dispatcher = Thread.ofVirtual().name("notification-sender").start(this::dispatch);
+    }
+
+    @PreDestroy
+    public void stop() {
+        dispatcher.interrupt();
+    }
+
+    private void dispatch() {
+        var lastLoad = 0L;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (System.nanoTime() - lastLoad >= pollInterval.toNanos()) {
+                    loadDue();
+                    lastLoad = System.nanoTime();
+                }
+                var outgoing = queue.poll(pollInterval.toNanos(), TimeUnit.NANOSECONDS);
+                if (outgoing == null) {
+                    continue;
+                }
+                var now = System.nanoTime();
+                var wait = rateLimiter.tryAcquire(outgoing.telegramId(), now);
+                if (wait > 0) {
+                    // Keeps its id, so messages to the same chat stay in order
+                    queue.add(outgoing.notBefore(now + wait));
+                    continue;
+                }
+                send(outgoing);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                LOGGER.error("Failed to dispatch notifications", e);
+            }
+        }
+    }
+
+    // Rows stay pending until Telegram accepts them, so anything unsent is picked up again after a restart.
+    // Finished rows leave inFlight only before a query, one that read them still pending can't queue them again.
+    // Rows already queued still come back from the query, so it asks for that many more
+    private void loadDue() {
+        for (var id = finished.poll(); id != null; id = finished.poll()) {
+            inFlight.remove(id);
+        }
+        var dueIds = notifications.findDueIdsByChatInTurns(LocalDateTime.now(), perChat, batchSize + inFlight.size()).stream()
+                .filter(id -> !inFlight.contains(id))
+                .limit(batchSize)
+                .toList();
+        if (dueIds.isEmpty()) {
+            return;
+        }
+        var now = System.nanoTime();
+        notifications.findByIdInOrderByIdAsc(dueIds).stream()
+                .filter(notification -> notification.getState() == Notification.State.PENDING && inFlight.add(notification.getId()))
+                .forEach(notification -> queue.add(new Outgoing(notification.getId(), notification.getTelegramId(), notification.getPost().getSource(),
+                        notification.getPost().getFirstSeenAt().orElse(null), notification.getCreatedAt(), notification.getAttempts(),
+                        postResponseCreator.createTelegramMessage(notification.getTelegramId(), notification.getPost()), now)));
+    }
+
+    private void send(Outgoing outgoing) {
+        var send = metrics.start(outgoing.source(), outgoing.telegramId());
+        bot.execute(outgoing.message(), new Callback<SendMessage, SendResponse>() {
+            @Override
+            public void onResponse(SendMessage request, SendResponse response) {
+                try {
+                    if (response.isOk()) {
+                        var deliveredAt = LocalDateTime.now();
+                        send.ok();
+                        if (outgoing.firstSeenAt() != null) {
+                            metrics.delivered(outgoing.source(), Duration.between(outgoing.firstSeenAt(), deliveredAt));
+                        }
+                        notifications.markSent(outgoing.id(), deliveredAt);
+                    } else {
+                        var failure = SendFailure.of(response);
+                        send.failed(failure);
+                        handleFailure(outgoing, failure);
+                    }
+                } finally {
+                    finished.add(outgoing.id());
+                }
+            }
+
+            @Override
+            public void onFailure(SendMessage request, IOException e) {
+                try {
+                    var failure = SendFailure.of(e);
+                    send.failed(failure);
+                    handleFailure(outgoing, failure);
+                } finally {
+                    finished.add(outgoing.id());
+                }
+            }
+        });
+    }
+
+    private void handleFailure(Outgoing outgoing, SendFailure failure) {
+        LOGGER.warn("Can't send telegram message to {}, {}: {}", outgoing.telegramId(), failure.type(), failure.description());
+        switch (failure.type()) {
+            case THROTTLED -> {
+                var retryAfter = failure.retryAfter().orElse(pollInterval);
+                rateLimiter.pause(System.nanoTime() + retryAfter.toNanos());
+                // Waiting out a throttle isn't the message's fault, so it doesn't use up an attempt, but it can't wait forever
+                if (outgoing.createdAt().plus(maxThrottledAge).isBefore(LocalDateTime.now())) {
+                    notifications.markDead(outgoing.id(), failure.description());
+                    return;
+                }
+                metrics.retried(outgoing.source(), failure.type());
+                notifications.reschedule(outgoing.id(), LocalDateTime.now().plus(retryAfter), failure.description());
+            }
+            case BLOCKED -> blockedChats.onBlocked(outgoing.telegramId(), failure.description());
+            case REJECTED -> notifications.markDead(outgoing.id(), failure.description());
+            case TRANSIENT -> {
+                if (outgoing.attempts() + 1 < maxAttempts) {
+                    metrics.retried(outgoing.source(), failure.type());
+                }
+                notifications.markAttemptFailed(outgoing.id(), LocalDateTime.now().plus(backoff(outgoing.attempts())), maxAttempts, failure.description());
+            }
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        var backoff = pollInterval.multipliedBy(1L << Math.min(attempts, 10));
+        return backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff;
+    }
+
+    private record Outgoing(Long id, Long telegramId, String source, LocalDateTime firstSeenAt, LocalDateTime createdAt, int attempts,
+                            SendMessage message, long notBefore) implements Delayed {
+
+        Outgoing notBefore(long time) {
+            return new Outgoing(id, telegramId, source, firstSeenAt, createdAt, attempts, message, time);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(notBefore - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            var that = (Outgoing) other;
+            var byTime = Long.compare(notBefore, that.notBefore);
+            return byTime != 0 ? byTime : Long.compare(id, that.id);
+        }
+    }
+}
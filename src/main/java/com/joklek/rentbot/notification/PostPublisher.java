@@ -0,0 +1,55 @@
+package com.joklek.rentbot.notification;
+
+import com.joklek.rentbot.entities.Notification;
+import com.joklek.rentbot.entities.Post;
+import com.joklek.rentbot.entities.PostEntityConverter;
+import com.joklek.rentbot.matching.SubscriptionMatcher;
+import com.joklek.rentbot.repo.NotificationRepo;
+import com.joklek.rentbot.repo.PostRepo;
+import com.joklek.rentbot.scraper.PostDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class PostPublisher {
+
+    private final PostRepo posts;
+    private final NotificationRepo notifications;
+    private final PostEntityConverter postConverter;
+    private final SubscriptionMatcher subscriptions;
+    private final MeterRegistry meterRegistry;
+
+    public PostPublisher(PostRepo posts, NotificationRepo notifications, PostEntityConverter postConverter, SubscriptionMatcher subscriptions, MeterRegistry meterRegistry) {
+        this.posts = posts;
+        this.notifications = notifications;
+        this.postConverter = postConverter;
+        this.subscriptions = subscriptions;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Posts and their notifications are committed together, so a crash can't leave a saved post nobody was told about
+    @Transactional
+    public List<Post> publish(List<PostDto> newPosts) {
+        var savedPosts = posts.saveAll(newPosts.stream().map(this::convert).toList());
+        var pricedPosts = savedPosts.stream()
+                .filter(post -> post.getPrice().isPresent())
+                .toList();
+
+        var outbox = new ArrayList<Notification>();
+        var matches = meterRegistry.timer("rentbot.match").record(() -> subscriptions.matchAll(pricedPosts));
+        matches.forEach((telegramId, interestingPosts) -> interestingPosts.forEach(post -> {
+            outbox.add(new Notification(post, telegramId));
+            meterRegistry.counter("rentbot.notifications.created", "source", post.getSource()).increment();
+        }));
+        notifications.saveAll(outbox);
+        return savedPosts;
+    }
+
+    private Post convert(PostDto post) {
+        return meterRegistry.timer("rentbot.post.convert", "source", post.getSource()).record(() -> postConverter.convert(post));
+    }
+}
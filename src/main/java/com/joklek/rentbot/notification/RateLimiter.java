@@ -0,0 +1,60 @@
+package com.joklek.rentbot.notification;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// Token buckets for Telegram's limits: a shared one for the whole bot and a single-token one per chat
+class RateLimiter {
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private final int globalCapacity;
+    private final long globalRefill;
+    private final long chatInterval;
+    private final Map<Long, Long> chatNextSend = new HashMap<>();
+    private double globalTokens;
+    private long globalUpdatedAt;
+
+    RateLimiter(int globalPerSecond, Duration chatInterval, long now) {
+        this.globalCapacity = globalPerSecond;
+        this.globalRefill = SECOND / globalPerSecond;
+        this.chatInterval = chatInterval.toNanos();
+        this.globalTokens = globalPerSecond;
+        this.globalUpdatedAt = now;
+    }
+
+    // Returns 0 and takes the tokens when a message can be sent now, otherwise how many nanos to wait
+    synchronized long tryAcquire(long chatId, long now) {
+        refill(now);
+        var chatWait = Math.max(0, chatNextSend.getOrDefault(chatId, now) - now);
+        var pausedFor = Math.max(0, globalUpdatedAt - now);
+        var globalWait = globalTokens >= 1 ? 0 : pausedFor + (long) Math.ceil((1 - globalTokens) * globalRefill);
+        var wait = Math.max(chatWait, globalWait);
+        if (wait > 0) {
+            return wait;
+        }
+        globalTokens -= 1;
+        chatNextSend.put(chatId, now + chatInterval);
+        if (chatNextSend.size() > globalCapacity * 10) {
+            chatNextSend.values().removeIf(nextSend -> nextSend <= now);
+        }
+        return 0;
+    }
+
+    // Telegram's flood limit is for the whole bot, so the shared bucket is held empty until the given time
+    synchronized void pause(long until) {
+        if (until > globalUpdatedAt) {
+            globalTokens = 0;
+            globalUpdatedAt = until;
+        }
+    }
+
+    private void refill(long now) {
+        if (now <= globalUpdatedAt) {
+            return;
+        }
+        var elapsed = now - globalUpdatedAt;
+        globalTokens = Math.min(globalCapacity, globalTokens + (double) elapsed / globalRefill);
+        globalUpdatedAt = now;
+    }
+}
@@ -0,0 +1,41 @@
+package com.joklek.rentbot.notification;
+
+import com.pengrad.telegrambot.response.BaseResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+
+public record SendFailure(Type type, Optional<Duration> retryAfter, String description) {
+
+    public enum Type {
+        // Telegram asked us to slow down, the message itself is fine
+        THROTTLED,
+        // The user blocked the bot or deleted the chat, nothing will ever get through
+        BLOCKED,
+        // Telegram refused the message itself, e.g. broken markdown, retrying won't help
+        REJECTED,
+        // Network errors and Telegram hiccups
+        TRANSIENT
+    }
+
+    public static SendFailure of(BaseResponse response) {
+        var description = String.format("%d: %s", response.errorCode(), response.description());
+        return switch (response.errorCode()) {
+            case 429 -> new SendFailure(Type.THROTTLED, Optional.ofNullable(response.parameters())
+                    .map(parameters -> parameters.retryAfter())
+                    .map(Duration::ofSeconds), description);
+            case 403 -> new SendFailure(Type.BLOCKED, Optional.empty(), description);
+            case 400 -> new SendFailure(Type.REJECTED, Optional.empty(), description);
+            default -> new SendFailure(Type.TRANSIENT, Optional.empty(), description);
+        };
+    }
+
+    public static SendFailure of(IOException e) {
+        return new SendFailure(Type.TRANSIENT, Optional.empty(), String.valueOf(e.getMessage()));
+    }
+
+    public boolean isRetryable() {
+        return type == Type.THROTTLED || type == Type.TRANSIENT;
+    }
+}
@@ -0,0 +1,71 @@
+package com.joklek.rentbot.notification;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Latency by outcome and retries of every Telegram send, tagged by the post source or "command" for bot replies.
+// Freshness is the time from a post first being scraped to it reaching a user
+@Component
+public class TelegramMetrics {
+    private final MeterRegistry meterRegistry;
+
+    public TelegramMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Send start(String source, Long chatId) {
+        return new Send(source, chatId);
+    }
+
+    public void delivered(String source, Duration freshness) {
+        Timer.builder("rentbot.freshness")
+                .tag("source", source)
+                .serviceLevelObjectives(FreshnessReport.BUCKETS.toArray(Duration[]::new))
+                .register(meterRegistry)
+                .record(freshness);
+    }
+
+    public void retried(String source, SendFailure.Type reason) {
+        meterRegistry.counter("rentbot.telegram.retries", "source", source, "reason", tag(reason)).increment();
+    }
+
+    private static String tag(SendFailure.Type type) {
+        return type.name().toLowerCase(Locale.ROOT);
+    }
+
+    // One send from the request to its response, also emitted as a JFR event
+    public class Send {
+        private final String source;
+        private final long startedAt;
+        private final TelegramSendEvent event;
+
+        private Send(String source, Long chatId) {
+            this.source = source;
+            this.startedAt = System.nanoTime();
+            this.event = new TelegramSendEvent();
+            event.begin();
+            event.source = source;
+            event.chatId = chatId;
+        }
+
+        public void ok() {
+            finish("ok");
+        }
+
+        public void failed(SendFailure failure) {
+            finish(tag(failure.type()));
+        }
+
+        private void finish(String status) {
+            meterRegistry.timer("rentbot.telegram.send", "source", source, "status", status)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            event.status = status;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.joklek.rentbot.notification;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("rentbot.TelegramSend")
+@Label("Telegram Send")
+@Category({"Rentbot", "Telegram"})
+@StackTrace(false)
+class TelegramSendEvent extends Event {
+    @Label("Source")
+    String source;
+    @Label("Chat Id")
+    long chatId;
+    @Label("Status")
+    String status;
+}
@@ -0,0 +1,109 @@
+package com.joklek.rentbot.repo;
+
+import com.joklek.rentbot.entities.Notification;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationRepo extends JpaRepository<Notification, Long> {
+
+    @EntityGraph(attributePaths = "post")
+    List<Notification> findByStateAndNextAttemptAtLessThanEqualOrderByIdAsc(Notification.State state, LocalDateTime now, Limit limit);
+
+    // Takes the oldest due rows of every chat in turns, so a chat with many pending rows can't fill a whole batch.
+    // Rows past perChat are left for later, a chat can't receive them faster anyway
+    @Query(value = "SELECT id FROM (" +
+            "SELECT id, ROW_NUMBER() OVER (PARTITION BY telegram_id ORDER BY id) AS chat_rank FROM notifications " +
+            "WHERE state = 'PENDING' AND next_attempt_at <= :now" +
+            ") WHERE chat_rank <= :perChat ORDER BY chat_rank, id LIMIT :limit", nativeQuery = true)
+    List<Long> findDueIdsByChatInTurns(LocalDateTime now, int perChat, int limit);
+
+    @EntityGraph(attributePaths = "post")
+    List<Notification> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    long countByState(Notification.State state);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.state = 'SENT', n.attempts = n.attempts + 1, n.deliveredAt = :deliveredAt WHERE n.id = :id")
+    void markSent(Long id, LocalDateTime deliveredAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.attempts = n.attempts + 1, n.nextAttemptAt = :nextAttemptAt, n.lastError = :error, " +
+            "n.state = CASE WHEN n.attempts + 1 >= :maxAttempts THEN 'FAILED' ELSE n.state END " +
+            "WHERE n.id = :id")
+    void markAttemptFailed(Long id, LocalDateTime nextAttemptAt, int maxAttempts, String error);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.nextAttemptAt = :nextAttemptAt, n.lastError = :error WHERE n.id = :id")
+    void reschedule(Long id, LocalDateTime nextAttemptAt, String error);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.state = 'FAILED', n.attempts = n.attempts + 1, n.lastError = :error WHERE n.id = :id")
+    void markDead(Long id, String error);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.state = 'FAILED', n.lastError = :error WHERE n.telegramId = :telegramId AND n.state = 'PENDING'")
+    void failPendingForChat(Long telegramId, String error);
+
+    // Milliseconds from first seen to delivered of every delivery since, once under its source and once under allSources
+    String FRESHNESS = "delivered AS (" +
+            "SELECT p.source AS source, n.delivered_at - p.first_seen_at AS millis FROM notifications n JOIN posts p ON p.id = n.post_id " +
+            "WHERE n.delivered_at >= :since AND p.first_seen_at IS NOT NULL" +
+            "), freshness AS (SELECT source, millis FROM delivered UNION ALL SELECT :allSources, millis FROM delivered)";
+
+    // Nearest rank percentiles of milliseconds from first seen to delivered, per source plus one row for all of them.
+    // Only the summary rows leave the database
+    @Query(value = "WITH " + FRESHNESS + ", ranked AS (" +
+            "SELECT source, millis, ROW_NUMBER() OVER (PARTITION BY source ORDER BY millis) AS position, COUNT(*) OVER (PARTITION BY source) AS total " +
+            "FROM freshness" +
+            ") SELECT source AS source, total AS count, " +
+            "MIN(CASE WHEN position >= 0.5 * total THEN millis END) AS p50, " +
+            "MIN(CASE WHEN position >= 0.9 * total THEN millis END) AS p90, " +
+            "MIN(CASE WHEN position >= 0.99 * total THEN millis END) AS p99, " +
+            "MAX(millis) AS max " +
+            "FROM ranked GROUP BY source, total ORDER BY source = :allSources, source", nativeQuery = true)
+    List<Freshness> summarizeFreshnessSince(LocalDateTime since, String allSources);
+
+    // A delivery falls in the bucket of the first upper bound in the JSON array of bounds it doesn't exceed,
+    // the bucket after the last bound holds the slower ones. Empty buckets have no row
+    @Query(value = "WITH " + FRESHNESS + " " +
+            "SELECT source AS source, (SELECT COUNT(*) FROM json_each(:upperBounds) WHERE value < millis) AS bucket, COUNT(*) AS count " +
+            "FROM freshness GROUP BY 1, 2", nativeQuery = true)
+    List<FreshnessBucket> countFreshnessSince(LocalDateTime since, String allSources, String upperBounds);
+
+    interface FreshnessBucket {
+        String getSource();
+
+        Integer getBucket();
+
+        Long getCount();
+    }
+
+    interface Freshness {
+        String getSource();
+
+        Long getCount();
+
+        Long getP50();
+
+        Long getP90();
+
+        Long getP99();
+
+        Long getMax();
+    }
+}
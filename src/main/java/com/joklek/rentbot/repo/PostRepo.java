@@ -6,13 +6,23 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 @Repository
 public interface PostRepo extends JpaRepository<Post, Long> {
 
     boolean existsByExternalIdAndSource(String externalId, String source);
 
+    @Query("SELECT p.externalId FROM Post p WHERE p.source = :source AND p.externalId IN :externalIds")
+    Set<String> findExistingExternalIds(String source, Collection<String> externalIds);
+
+    long countBySourceAndCreatedAtAfter(String source, LocalDateTime afterDate);
+
+    @Query("SELECT p.source AS source, p.externalId AS externalId FROM Post p")
+    List<PostKey> findAllKeys();
+
     @Query(value = "SELECT distinct p FROM Post p " +
             "JOIN User u ON u.id = :userId " +
             "LEFT JOIN u.districts d " +
@@ -65,4 +75,10 @@ public interface PostRepo extends JpaRepository<Post, Long> {
             "))" +
             "AND p.createdAt >= :afterDate")
     int getCountOfPostsForUserFromDays(Long userId, LocalDateTime afterDate);
+
+    interface PostKey {
+        String getSource();
+
+        String getExternalId();
+    }
 }
@@ -1,32 +1,38 @@
 package com.joklek.rentbot.scraper;
 
 import com.google.common.net.UrlEscapers;
-import com.joklek.rentbot.repo.PostRepo;
+import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
-import static org.slf4j.LoggerFactory.getLogger;
-
 @Component
 public class AlioScraper extends JsoupScraper {
-    private static final Logger LOGGER = getLogger(AlioScraper.class);
     private static final URI BASE_URL = URI.create("https://www.alio.lt/paieska/?category_id=1393&city_id=228626&search_block=1&search[eq][adresas_1]=228626&order=ad_id");
 
-    private final PostRepo posts;
+    private final KnownPostIndex knownPosts;
+    private final ListPageState listPage = new ListPageState();
+
+    public AlioScraper(KnownPostIndex knownPosts, HttpClient client, @Value("${application.scraper.http.request-timeout}") Duration requestTimeout) {
+        super(client, requestTimeout);
+        this.knownPosts = knownPosts;
+    }
 
-    public AlioScraper(PostRepo posts) {
-        this.posts = posts;
+    @Override
+    public String getSource() {
+        return AlioPost.SOURCE;
     }
 
     @Override
     public List<PostDto> getLatestPosts() {
-        var maybeDoc = getDocument(BASE_URL);
+        var maybeDoc = getDocument(BASE_URL, listPage);
         if (maybeDoc.isEmpty()) {
             return List.of();
         }
@@ -34,36 +40,31 @@ public class AlioScraper extends JsoupScraper {
 
         var rawPosts = doc.select("#main_left_b > #main-content-center > a.result");
 
-        return rawPosts.stream()
+        var links = rawPosts.stream()
                 .map(rawPost -> rawPost.attr("href"))
                 .map(link -> UrlEscapers.urlFragmentEscaper().escape(link))
-                .map(link -> {
-                    try {
-                        return processItem(URI.create(link));
-                    } catch (Exception e) {
-                        LOGGER.error("Can't parse post '{}'", link, e);
-                        return Optional.<PostDto>empty();
-                    }
-                })
-                .filter(Optional::isPresent)
-                .map(Optional::get)
                 .toList();
+        var newIds = listPage.findUnknown(AlioPost.SOURCE, links.stream().map(this::getId).toList(), knownPosts);
+
+        var newLinks = links.stream()
+                .filter(link -> newIds.contains(getId(link)))
+                .toList();
+        return fetchDetails(newLinks, link -> processItem(URI.create(link)));
     }
 
     private Optional<PostDto> processItem(URI longLink) {
-        var linkElements = longLink.toString().split("/");
-        var alioId = linkElements[linkElements.length - 1].replaceFirst(".html$", "").replaceFirst("^ID", "");
-        var link = URI.create(String.format("https://www.alio.lt/skelbimai/ID%s.html", alioId));
-        if (posts.existsByExternalIdAndSource(alioId, AlioPost.SOURCE)) {
-            return Optional.empty();
-        }
+        var alioId = getId(longLink.toString());
 
         var maybeExactPost = getDocument(longLink);
         if (maybeExactPost.isEmpty()) {
             // TODO log empty
             return Optional.empty();
         }
-        var exactPost = maybeExactPost.get();
+        return Optional.of(parseItem(alioId, maybeExactPost.get()));
+    }
+
+    PostDto parseItem(String alioId, Document exactPost) {
+        var link = URI.create(String.format("https://www.alio.lt/skelbimai/ID%s.html", alioId));
         var post = new AlioPost();
         var phone = Optional.ofNullable(exactPost.select("#phone_val_value").first()).map(Element::text);
         var description = Optional.ofNullable(exactPost.select("#adv_description_b > .a_line_val").first()).map(Element::text);
@@ -113,7 +114,12 @@ public class AlioScraper extends JsoupScraper {
         rooms.ifPresent(post::setRooms);
         year.ifPresent(post::setYear);
 
-        return Optional.of(post);
+        return post;
+    }
+
+    private String getId(String link) {
+        var linkElements = link.split("/");
+        return linkElements[linkElements.length - 1].replaceFirst(".html$", "").replaceFirst("^ID", "");
     }
 
     private static class AlioPost extends PostDto {
@@ -1,12 +1,9 @@
 package com.joklek.rentbot.scraper;
 
-import com.joklek.rentbot.repo.PostRepo;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.WindowType;
-import org.openqa.selenium.firefox.FirefoxDriver;
-import org.openqa.selenium.firefox.FirefoxOptions;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
 
@@ -23,26 +20,27 @@ public class AruodasScraper implements Scraper {
     private static final Logger LOGGER = getLogger(AruodasScraper.class);
     private static final URI BASE_URL = URI.create("https://m.aruodas.lt/?obj=4&FRegion=461&FDistrict=1&FOrder=AddDate&from_search=1&detailed_search=1&FShowOnly=FOwnerDbId0%2CFOwnerDbId1&act=search");
 
-    private final PostRepo posts;
+    private final KnownPostIndex knownPosts;
+    private final ListPageState listPage = new ListPageState();
+    private final WebDriverPool drivers;
 
-    public AruodasScraper(PostRepo posts) {
-        this.posts = posts;
+    public AruodasScraper(KnownPostIndex knownPosts, WebDriverPool drivers) {
+        this.knownPosts = knownPosts;
+        this.drivers = drivers;
+    }
+
+    @Override
+    public String getSource() {
+        return AruodasPost.SOURCE;
     }
 
     @Override
     public List<PostDto> getLatestPosts() {
-        var options = new FirefoxOptions().addArguments("-headless");
-        var driver = new FirefoxDriver(options);
-        try {
-            return getPosts(driver);
-        } catch (Exception e) {
-            throw e; // TODO
-        } finally {
-            driver.quit();
-        }
+        var newIds = drivers.withDriver(this::getNewIds);
+        return drivers.mapInParallel(newIds, this::processItem);
     }
 
-    private List<PostDto> getPosts(WebDriver driver) {
+    private List<String> getNewIds(WebDriver driver) {
         driver.get(BASE_URL.toString());
         var rawPosts = driver.findElements(By.cssSelector("ul.search-result-list-big_thumbs > li.result-item-big-thumb:not([style='display: none'])"));
         if (rawPosts.isEmpty()) {
@@ -50,19 +48,15 @@ public class AruodasScraper implements Scraper {
             return List.of();
         }
 
-        return rawPosts.stream()
-                .map(rawPost -> processItem(rawPost, driver))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
+        var ids = rawPosts.stream()
+                .map(rawPost -> rawPost.getAttribute("data-id").replace("loadobject", ""))
                 .toList();
+        var newestIds = knownPosts.takeNewest(AruodasPost.SOURCE, ids, id -> id);
+        return List.copyOf(listPage.findUnknown(AruodasPost.SOURCE, newestIds, knownPosts));
     }
 
-    private Optional<PostDto> processItem(WebElement rawPost, WebDriver driver) {
+    private Optional<PostDto> processItem(String aruodasId, WebDriver driver) {
         var originalWindow = driver.getWindowHandle();
-        var aruodasId = rawPost.getAttribute("data-id").replace("loadobject", "");
-        if (posts.existsByExternalIdAndSource(aruodasId, AruodasPost.SOURCE)) {
-            return Optional.empty();
-        }
 
         var link = URI.create(String.format("https://aruodas.lt/%s", aruodasId));
         driver.switchTo().newWindow(WindowType.TAB).get(link.toString());
@@ -1,10 +1,13 @@
 package com.joklek.rentbot.scraper;
 
-import com.joklek.rentbot.repo.PostRepo;
+import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -13,41 +16,45 @@ import java.util.stream.Collectors;
 public class CapitalScraper extends JsoupScraper {
     private static final URI BASE_URL = URI.create("https://www.capital.lt/lt/nekilnojamas-turtas/butai-nuomai/vilniaus-m-sav/vilnius");
 
-    private final PostRepo posts;
+    private final KnownPostIndex knownPosts;
+    private final ListPageState listPage = new ListPageState();
 
-    public CapitalScraper(PostRepo posts) {
-        this.posts = posts;
+    public CapitalScraper(KnownPostIndex knownPosts, HttpClient client, @Value("${application.scraper.http.request-timeout}") Duration requestTimeout) {
+        super(client, requestTimeout);
+        this.knownPosts = knownPosts;
+    }
+
+    @Override
+    public String getSource() {
+        return CapitalPost.SOURCE;
     }
 
     @Override
     public List<PostDto> getLatestPosts() {
-        var maybeDoc = getDocument(BASE_URL);
+        var maybeDoc = getDocument(BASE_URL, listPage);
         if (maybeDoc.isEmpty()) {
             return List.of();
         }
         var doc = maybeDoc.get();
 
         var rawPosts = doc.select("div.realty-items > a:not(.realty-status-rented)");
+        var newIds = listPage.findUnknown(CapitalPost.SOURCE, rawPosts.stream().map(this::getId).toList(), knownPosts);
 
-        return rawPosts.stream()
-                .map(rawPost -> processItem(rawPost))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .toList();
+        return fetchDetails(newIds, this::processItem);
     }
 
-    private Optional<PostDto> processItem(Element rawPost) {
-        var capitalId = rawPost.attr("id").replace("item-", "");
+    private Optional<PostDto> processItem(String capitalId) {
         var link = URI.create(String.format("https://www.capital.lt/lt/p%s", capitalId));
-        if (posts.existsByExternalIdAndSource(capitalId, CapitalPost.SOURCE)) {
-            return Optional.empty();
-        }
 
         var maybeExactPost = getDocument(link);
         if (maybeExactPost.isEmpty()) {
             return Optional.empty();
         }
-        var exactPost = maybeExactPost.get();
+        return Optional.of(parseItem(capitalId, maybeExactPost.get()));
+    }
+
+    PostDto parseItem(String capitalId, Document exactPost) {
+        var link = URI.create(String.format("https://www.capital.lt/lt/p%s", capitalId));
         var post = new CapitalPost();
         var phone = Optional.ofNullable(exactPost.select(".estate-phone-sticker a").first())
                 .map(Element::text);
@@ -113,7 +120,11 @@ public class CapitalScraper extends JsoupScraper {
         rooms.ifPresent(post::setRooms);
         year.ifPresent(post::setYear);
 
-        return Optional.of(post);
+        return post;
+    }
+
+    private String getId(Element rawPost) {
+        return rawPost.attr("id").replace("item-", "");
     }
 
     private static class CapitalPost extends PostDto {
@@ -1,10 +1,13 @@
 package com.joklek.rentbot.scraper;
 
-import com.joklek.rentbot.repo.PostRepo;
+import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
@@ -14,41 +17,48 @@ import java.util.stream.Collectors;
 public class DomopliusScraper extends JsoupScraper {
     private static final URI BASE_URL = URI.create("https://m.domoplius.lt/skelbimai/butai?action_type=3&address_1=461&sell_price_from=&sell_price_to=&qt=");
 
-    private final PostRepo posts;
+    private final KnownPostIndex knownPosts;
+    private final ListPageState listPage = new ListPageState();
 
-    public DomopliusScraper(PostRepo posts) {
-        this.posts = posts;
+    public DomopliusScraper(KnownPostIndex knownPosts, HttpClient client, @Value("${application.scraper.http.request-timeout}") Duration requestTimeout) {
+        super(client, requestTimeout);
+        this.knownPosts = knownPosts;
+    }
+
+    @Override
+    public String getSource() {
+        return DomopliusPost.SOURCE;
     }
 
     @Override
     public List<PostDto> getLatestPosts() {
-        var maybeDoc = getDocument(BASE_URL);
+        var maybeDoc = getDocument(BASE_URL, listPage);
         if (maybeDoc.isEmpty()) {
             return List.of();
         }
         var doc = maybeDoc.get();
 
         var rawPosts = doc.select("ul.list > li[id^='ann_']");
+        var newIds = listPage.findUnknown(DomopliusPost.SOURCE, rawPosts.stream().map(this::getId).toList(), knownPosts);
 
-        return rawPosts.stream()
-                .map(rawPost -> processItem(rawPost))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
+        var newPosts = rawPosts.stream()
+                .filter(rawPost -> newIds.contains(getId(rawPost)))
                 .toList();
+        return fetchDetails(newPosts, this::processItem);
     }
 
     private Optional<PostDto> processItem(Element rawPost) {
-        var domoId = rawPost.attr("id").replace("ann_", "");
-        var link = URI.create(String.format("https://domoplius.lt/skelbimai/-%s.html", domoId));
-        if (posts.existsByExternalIdAndSource(domoId, DomopliusPost.SOURCE)) {
-            return Optional.empty();
-        }
+        var domoId = getId(rawPost);
 
         var maybeExactPost = getDocument(URI.create(rawPost.select("li a").attr("href"))); // Not using created link because even with redirects turned on it doesn't work properly :/
         if (maybeExactPost.isEmpty()) {
             return Optional.empty();
         }
-        var exactPost = maybeExactPost.get();
+        return Optional.of(parseItem(domoId, maybeExactPost.get()));
+    }
+
+    PostDto parseItem(String domoId, Document exactPost) {
+        var link = URI.create(String.format("https://domoplius.lt/skelbimai/-%s.html", domoId));
         var post = new DomopliusPost();
         var phone = Optional.ofNullable(exactPost.select("#phone_button_4 > span").first())
                 .map(el -> el.attr("data-value"))
@@ -121,7 +131,11 @@ public class DomopliusScraper extends JsoupScraper {
         rooms.ifPresent(post::setRooms);
         year.ifPresent(post::setYear);
 
-        return Optional.of(post);
+        return post;
+    }
+
+    private String getId(Element rawPost) {
+        return rawPost.attr("id").replace("ann_", "");
     }
 
     private String decode(String dataEncoded) {
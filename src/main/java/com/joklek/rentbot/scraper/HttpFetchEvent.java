@@ -0,0 +1,31 @@
+package com.joklek.rentbot.scraper;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("rentbot.HttpFetch")
+@Label("HTTP Fetch")
+@Description("A page fetched and parsed by a Jsoup scraper, the duration doesn't include waiting for the host throttle")
+@Category({"Rentbot", "Scraper"})
+@StackTrace(false)
+class HttpFetchEvent extends Event {
+    @Label("Host")
+    String host;
+    @Label("URI")
+    String uri;
+    @Label("Status")
+    int status;
+    @Label("Bytes")
+    @Description("Body size as sent, before decompressing")
+    @DataAmount
+    long bytes;
+    @Label("Throttle Wait")
+    @Timespan
+    long throttleWait;
+}
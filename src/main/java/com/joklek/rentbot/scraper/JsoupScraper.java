@@ -4,31 +4,214 @@ import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.slf4j.Logger;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.util.Optional;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
 public abstract class JsoupScraper implements Scraper {
     private static final Logger LOGGER = getLogger(JsoupScraper.class);
     private static final String DEFAULT_USER_AGENT = "Mozilla/5.0 (Android 14; Mobile; rv:129.0) Gecko/129.0 Firefox/129.0";
+    private static final int MAX_REQUESTS_PER_HOST = 4;
+    private static final long POLITENESS_DELAY = Duration.ofMillis(250).toNanos();
+    private static final Map<String, HostThrottle> HOST_THROTTLES = new ConcurrentHashMap<>();
+
+    private final HttpClient client;
+    private final Duration requestTimeout;
+
+    protected JsoupScraper(HttpClient client, Duration requestTimeout) {
+        this.client = client;
+        this.requestTimeout = requestTimeout;
+    }
 
     protected Optional<Document> getDocument(URI link) {
+        return getDocument(link, null);
+    }
+
+    // Asks only for a changed page, an unchanged list page comes back empty
+    protected Optional<Document> getDocument(URI link, ListPageState listPage) {
+        var throttle = HOST_THROTTLES.computeIfAbsent(link.getHost(), host -> new HostThrottle());
+        var queuedAt = System.nanoTime();
         try {
-            return Optional.of(Jsoup.connect(link.toString())
-                    .header("Host", link.getHost())
-                    .userAgent(DEFAULT_USER_AGENT)
+            throttle.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+        var event = new HttpFetchEvent();
+        event.begin();
+        event.host = link.getHost();
+        event.uri = link.toString();
+        event.throttleWait = System.nanoTime() - queuedAt;
+        try {
+            var request = HttpRequest.newBuilder(link)
+                    .timeout(requestTimeout)
+                    .header("User-Agent", DEFAULT_USER_AGENT)
                     .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,*/*;q=0.8")
                     .header("Accept-Language", "en-US")
                     .header("Accept-Encoding", "gzip, deflate")
-                    .header("Connection", "keep-alive")
                     .header("Upgrade-Insecure-Requests", "1")
-                    .followRedirects(true)
-                    .get());
+                    .GET();
+            if (listPage != null) {
+                listPage.addValidators(request);
+            }
+            var response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+            event.status = response.statusCode();
+            var counted = new CountingInputStream(response.body());
+            try (var body = decode(response, counted)) {
+                if (response.statusCode() == 304) {
+                    LOGGER.debug("'{}' not modified", link);
+                    return Optional.empty();
+                }
+                if (response.statusCode() / 100 != 2) {
+                    LOGGER.error("Failed while fetching '{}', got status {}", link, response.statusCode());
+                    return Optional.empty();
+                }
+                if (listPage != null) {
+                    listPage.record(response.headers());
+                }
+                return Optional.of(Jsoup.parse(body, getCharset(response).orElse(null), response.uri().toString()));
+            } finally {
+                event.bytes = counted.count;
+            }
         } catch (IOException e) {
             LOGGER.error("Failed while fetching '{}'", link, e);
             return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } finally {
+            throttle.release();
+            event.commit();
+        }
+    }
+
+    // HttpClient doesn't decompress by itself. Brotli isn't asked for, the JDK has no decoder for it
+    private static InputStream decode(HttpResponse<?> response, InputStream body) throws IOException {
+        var encoding = response.headers().firstValue("Content-Encoding").orElse("identity").trim().toLowerCase(Locale.ROOT);
+        return switch (encoding) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(body);
+            case "deflate" -> new InflaterInputStream(body);
+            default -> body;
+        };
+    }
+
+    // Without a charset in the header Jsoup looks for a meta tag and falls back to UTF-8
+    private static Optional<String> getCharset(HttpResponse<?> response) {
+        return response.headers().firstValue("Content-Type")
+                .flatMap(contentType -> Arrays.stream(contentType.split(";"))
+                        .map(String::trim)
+                        .filter(parameter -> parameter.toLowerCase(Locale.ROOT).startsWith("charset="))
+                        .map(parameter -> parameter.substring("charset=".length()).replace("\"", ""))
+                        .filter(Charset::isSupported)
+                        .findFirst());
+    }
+
+    // Detail pages are fetched concurrently, getDocument keeps each host within its limits. Order of items is kept
+    protected <T> List<PostDto> fetchDetails(Collection<T> items, Function<T, Optional<PostDto>> fetch) {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var futures = items.stream()
+                    .map(item -> executor.submit(() -> fetchDetail(item, fetch)))
+                    .toList();
+            return futures.stream()
+                    .map(JsoupScraper::join)
+                    .flatMap(Optional::stream)
+                    .toList();
+        }
+    }
+
+    private static <T> Optional<PostDto> fetchDetail(T item, Function<T, Optional<PostDto>> fetch) {
+        try {
+            return fetch.apply(item);
+        } catch (Exception e) {
+            LOGGER.error("Can't parse post '{}'", item, e);
+            return Optional.empty();
+        }
+    }
+
+    // fetchDetail already skips posts that fail, anything left is an interrupted scrape or an Error and ends the scrape
+    private static Optional<PostDto> join(Future<Optional<PostDto>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            var read = super.read();
+            if (read != -1) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            var read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            var skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    // Caps concurrent requests to a host and spaces out their starts, so parallel fetching stays polite
+    private static class HostThrottle {
+        private final Semaphore permits = new Semaphore(MAX_REQUESTS_PER_HOST, true);
+        private final AtomicLong nextStart = new AtomicLong(System.nanoTime());
+
+        void acquire() throws InterruptedException {
+            permits.acquire();
+            var now = System.nanoTime();
+            var start = Math.max(now, nextStart.getAndAccumulate(now, (next, current) -> Math.max(next, current) + POLITENESS_DELAY));
+            try {
+                if (start > now) {
+                    Thread.sleep(Duration.ofNanos(start - now));
+                }
+            } catch (InterruptedException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        void release() {
+            permits.release();
         }
     }
 }
@@ -1,6 +1,7 @@
 package com.joklek.rentbot.scraper;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.jsoup.Jsoup;
@@ -8,47 +9,139 @@ import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.StreamSupport;
+import java.util.Set;
 
 import static java.net.URI.create;
 import static org.slf4j.LoggerFactory.getLogger;
 
 @Component
 public class KampasScraper implements Scraper {
-    private static final URI BASE_URL = create("https://www.kampas.lt/api/classifieds/search-new?query=%7B%22municipality%22%3A%2258%22%2C%22settlement%22%3A19220%2C%22page%22%3A1%2C%22sort%22%3A%22new%22%2C%22section%22%3A%22bustas-nuomai%22%2C%22type%22%3A%22flat%22%7D");
+    private static final String BASE_URL = "https://www.kampas.lt/api/classifieds/search-new?query=%s";
+    private static final String QUERY = "{\"municipality\":\"58\",\"settlement\":19220,\"page\":%d,\"sort\":\"new\",\"section\":\"bustas-nuomai\",\"type\":\"flat\"}";
+    private static final int MAX_PAGES = 3;
     private static final String DEFAULT_USER_AGENT = "Mozilla/5.0 (Android 14; Mobile; rv:129.0) Gecko/129.0 Firefox/129.0";
     private static final Logger LOGGER = getLogger(KampasScraper.class);
+    private static final Set<String> HIT_FIELDS = Set.of("id", "title", "description", "features", "objectfloor", "totalfloors", "objectarea", "objectprice", "totalrooms", "yearbuilt");
 
     private final HttpClient client;
-
     private final ObjectMapper mapper;
+    private final KnownPostIndex knownPosts;
+    private final ListPageState listPage = new ListPageState();
 
-    public KampasScraper(HttpClient client, ObjectMapper mapper) {
+    public KampasScraper(HttpClient client, ObjectMapper mapper, KnownPostIndex knownPosts) {
         this.client = client;
         this.mapper = mapper;
+        this.knownPosts = knownPosts;
+    }
+
+    @Override
+    public String getSource() {
+        return KampasPost.SOURCE;
     }
 
     @Override
     public List<PostDto> getLatestPosts() {
-        var maybeTree = getPosts(BASE_URL);
-        if (maybeTree.isEmpty() || maybeTree.get().get("hits").isEmpty() || !maybeTree.get().get("hits").isArray()) {
-            // TODO log empty
-            return List.of();
+        var pageHits = readPage(1, listPage);
+        var newIds = listPage.findUnknown(KampasPost.SOURCE, pageHits.stream().map(KampasScraper::getId).toList(), knownPosts);
+        var newPosts = pageHits.stream()
+                .filter(rawPost -> newIds.contains(getId(rawPost)))
+                .toList();
+
+        // Everything on the page being new means a burst of posts, the rest of it is on the next pages.
+        // Posts arriving meanwhile push ones already read onto the next page, so they are kept by id
+        var rawPosts = new LinkedHashMap<String, JsonNode>();
+        newPosts.forEach(rawPost -> rawPosts.putIfAbsent(getId(rawPost), rawPost));
+        var page = 1;
+        while (!newPosts.isEmpty() && newPosts.size() == pageHits.size() && page < MAX_PAGES) {
+            page++;
+            pageHits = readPage(page, null);
+            var newIdsOnPage = knownPosts.findUnknown(KampasPost.SOURCE, pageHits.stream().map(KampasScraper::getId).toList());
+            newPosts = pageHits.stream()
+                    .filter(rawPost -> newIdsOnPage.contains(getId(rawPost)))
+                    .toList();
+            newPosts.forEach(rawPost -> rawPosts.putIfAbsent(getId(rawPost), rawPost));
         }
-        var rawPosts = StreamSupport.stream(maybeTree.get().get("hits").spliterator(), false).toList();
 
-        return rawPosts.stream()
+        return rawPosts.values().stream()
                 .map(rawPost -> processItem(rawPost))
                 .toList();
     }
 
-    private PostDto processItem(JsonNode node) {
+    private List<JsonNode> readPage(int page, ListPageState listPage) {
+        var link = create(String.format(BASE_URL, URLEncoder.encode(String.format(QUERY, page), StandardCharsets.UTF_8)));
+        var maybeBody = getPosts(link, listPage);
+        if (maybeBody.isEmpty()) {
+            return List.of();
+        }
+        try (var body = maybeBody.get()) {
+            return readNewestHits(body);
+        } catch (IOException e) {
+            LOGGER.error("Failed while reading '{}' because of invalid json", link, e);
+            return List.of();
+        }
+    }
+
+    // Hits come newest first, so reading stops once the rest of them are already saved
+    List<JsonNode> readNewestHits(InputStream body) throws IOException {
+        try (var parser = mapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return List.of();
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                var field = parser.currentName();
+                if (parser.nextToken() == JsonToken.START_ARRAY && field.equals("hits")) {
+                    return readHits(parser);
+                }
+                parser.skipChildren();
+            }
+            return List.of();
+        }
+    }
+
+    private List<JsonNode> readHits(JsonParser parser) throws IOException {
+        var hits = new ArrayList<JsonNode>();
+        var tracker = knownPosts.trackNewest(KampasPost.SOURCE);
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            var hit = readHit(parser);
+            hits.add(hit);
+            if (!tracker.continueAfter(getId(hit))) {
+                break;
+            }
+        }
+        return hits;
+    }
+
+    // Only the fields processItem reads are kept, the rest of a hit is skipped without building nodes
+    private JsonNode readHit(JsonParser parser) throws IOException {
+        var hit = mapper.createObjectNode();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var field = parser.currentName();
+            parser.nextToken();
+            if (HIT_FIELDS.contains(field)) {
+                hit.set(field, mapper.readTree(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return hit;
+    }
+
+    private static String getId(JsonNode node) {
+        return node.path("id").asText();
+    }
+
+    PostDto processItem(JsonNode node) {
         var kampasId = node.get("id").asText();
         var link = create(String.format("https://www.kampas.lt/skelbimai/%s", kampasId));
 
@@ -112,18 +205,20 @@ public class KampasScraper implements Scraper {
         return post;
     }
 
-    private Optional<JsonNode> getPosts(URI link) {
-        HttpResponse<String> response;
+    private Optional<InputStream> getPosts(URI link, ListPageState listPage) {
+        HttpResponse<InputStream> response;
         var request = HttpRequest.newBuilder()
                 .GET()
                 .uri(link)
                 .header("User-Agent", DEFAULT_USER_AGENT)
                 .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,*/*;q=0.8")
                 .header("Accept-Language", "en-US")
-                .header("Upgrade-Insecure-Requests", "1")
-                .build();
+                .header("Upgrade-Insecure-Requests", "1");
         try {
-            response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (listPage != null) {
+                listPage.addValidators(request);
+            }
+            response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
         } catch (IOException e) {
             LOGGER.error("Failed while fetching '{}'", link, e);
             return Optional.empty();
@@ -132,16 +227,27 @@ public class KampasScraper implements Scraper {
             throw new RuntimeException(e);
         }
 
+        if (response.statusCode() == 304) {
+            LOGGER.debug("'{}' not modified", link);
+            closeQuietly(response.body());
+            return Optional.empty();
+        }
         if (response.statusCode() != 200) {
             LOGGER.error("Failed while fetching '{}' with response code {}", link, response.statusCode());
+            closeQuietly(response.body());
             return Optional.empty();
         }
+        if (listPage != null) {
+            listPage.record(response.headers());
+        }
+        return Optional.of(response.body());
+    }
 
+    private static void closeQuietly(InputStream body) {
         try {
-            return Optional.of(mapper.readTree(response.body()));
-        } catch (JsonProcessingException e) {
-            LOGGER.error("Failed while fetching '{}' because of invalid json", link, e);
-            return Optional.empty();
+            body.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close response body", e);
         }
     }
 
@@ -0,0 +1,104 @@
+package com.joklek.rentbot.scraper;
+
+import com.joklek.rentbot.repo.PostRepo;
+import org.slf4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static java.util.function.Predicate.not;
+import static org.slf4j.LoggerFactory.getLogger;
+
+@Component
+public class KnownPostIndex {
+    private static final Logger LOGGER = getLogger(KnownPostIndex.class);
+    private static final int KNOWN_IN_A_ROW_TO_STOP = 3;
+
+    private final PostRepo posts;
+    private final Map<String, Set<String>> knownIds = new ConcurrentHashMap<>();
+    private volatile boolean warm = false;
+
+    public KnownPostIndex(PostRepo posts) {
+        this.posts = posts;
+    }
+
+    // Also resets the index, anything added since the last warm up that isn't saved is forgotten
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        warm = false;
+        knownIds.clear();
+        var keys = posts.findAllKeys();
+        keys.forEach(key -> add(key.getSource(), key.getExternalId()));
+        warm = true;
+        LOGGER.info("Loaded {} known posts", keys.size());
+    }
+
+    public boolean isKnown(String source, String externalId) {
+        if (getKnownIds(source).contains(externalId)) {
+            return true;
+        }
+        // Until all ids are loaded a miss doesn't mean the post is new
+        return !warm && posts.existsByExternalIdAndSource(externalId, source);
+    }
+
+    public Set<String> findUnknown(String source, Collection<String> externalIds) {
+        var knownIdsOfSource = getKnownIds(source);
+        var unknownIds = externalIds.stream()
+                .filter(not(knownIdsOfSource::contains))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (warm || unknownIds.isEmpty()) {
+            return unknownIds;
+        }
+
+        var savedIds = posts.findExistingExternalIds(source, unknownIds);
+        knownIdsOfSource.addAll(savedIds);
+        unknownIds.removeAll(savedIds);
+        return unknownIds;
+    }
+
+    public <T> List<T> takeNewest(String source, List<T> items, Function<T, String> getId) {
+        var newest = new ArrayList<T>();
+        var tracker = trackNewest(source);
+        for (var item : items) {
+            newest.add(item);
+            if (!tracker.continueAfter(getId.apply(item))) {
+                break;
+            }
+        }
+        return newest;
+    }
+
+    public NewestTracker trackNewest(String source) {
+        return new NewestTracker(source);
+    }
+
+    public void add(String source, String externalId) {
+        getKnownIds(source).add(externalId);
+    }
+
+    private Set<String> getKnownIds(String source) {
+        return knownIds.computeIfAbsent(source, ignored -> ConcurrentHashMap.newKeySet());
+    }
+
+    // For lists sorted newest first: after a few saved posts in a row the rest of the list is old too.
+    // A few rather than one, so a promoted old post at the top doesn't hide the new ones below it
+    public class NewestTracker {
+        private final String source;
+        private int knownInARow = 0;
+
+        private NewestTracker(String source) {
+            this.source = source;
+        }
+
+        // Call for every read id in list order, false means the rest of the list can be skipped
+        public boolean continueAfter(String externalId) {
+            knownInARow = isKnown(source, externalId) ? knownInARow + 1 : 0;
+            return knownInARow < KNOWN_IN_A_ROW_TO_STOP;
+        }
+    }
+}
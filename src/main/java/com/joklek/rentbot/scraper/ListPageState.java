@@ -0,0 +1,44 @@
+package com.joklek.rentbot.scraper;
+
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.Set;
+
+// What a scraper saw on its list page the last time every post on it was already saved
+class ListPageState {
+    private String etag;
+    private String lastModified;
+    private String receivedEtag;
+    private String receivedLastModified;
+    private List<String> ids = List.of();
+
+    synchronized HttpRequest.Builder addValidators(HttpRequest.Builder request) {
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            request.header("If-Modified-Since", lastModified);
+        }
+        return request;
+    }
+
+    synchronized void record(HttpHeaders headers) {
+        receivedEtag = headers.firstValue("ETag").orElse(null);
+        receivedLastModified = headers.firstValue("Last-Modified").orElse(null);
+    }
+
+    // Validators and ids are only kept once nothing on the page is new, so a cycle that failed half way is redone in full
+    synchronized Set<String> findUnknown(String source, List<String> listIds, KnownPostIndex knownPosts) {
+        if (!listIds.isEmpty() && listIds.equals(ids)) {
+            return Set.of();
+        }
+        var unknownIds = knownPosts.findUnknown(source, listIds);
+        if (unknownIds.isEmpty()) {
+            ids = List.copyOf(listIds);
+            etag = receivedEtag;
+            lastModified = receivedLastModified;
+        }
+        return unknownIds;
+    }
+}
@@ -0,0 +1,57 @@
+package com.joklek.rentbot.scraper;
+
+import com.joklek.rentbot.repo.PostRepo;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Estimates how often a source should be polled from how many new posts it had recently.
+ * Busy sources are polled roughly twice per expected new post, quiet ones are backed off up to the max interval.
+ */
+@Component
+public class PollingIntervalEstimator {
+    private static final Logger LOGGER = getLogger(PollingIntervalEstimator.class);
+    // Scraping is paused during the night, so posts are only observed from 6:00 to 23:00
+    private static final long ACTIVE_HOURS_PER_DAY = 17;
+    private static final int POLLS_PER_EXPECTED_POST = 2;
+
+    private final PostRepo posts;
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final Duration history;
+
+    public PollingIntervalEstimator(PostRepo posts,
+                                    @Value("${application.scraper.interval.min}") Duration minInterval,
+                                    @Value("${application.scraper.interval.max}") Duration maxInterval,
+                                    @Value("${application.scraper.interval.history}") Duration history) {
+        this.posts = posts;
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.history = history;
+    }
+
+    public Duration getInterval(String source) {
+        var postCount = posts.countBySourceAndCreatedAtAfter(source, LocalDateTime.now().minus(history));
+        if (postCount == 0) {
+            return maxInterval;
+        }
+
+        var activeTime = Duration.ofMinutes(history.toMinutes() * ACTIVE_HOURS_PER_DAY / 24);
+        var expectedTimeBetweenPosts = activeTime.dividedBy(postCount);
+        var interval = expectedTimeBetweenPosts.dividedBy(POLLS_PER_EXPECTED_POST);
+        if (interval.compareTo(minInterval) < 0) {
+            interval = minInterval;
+        } else if (interval.compareTo(maxInterval) > 0) {
+            interval = maxInterval;
+        }
+
+        LOGGER.debug("{} had {} posts in the last {}, polling every {}", source, postCount, history, interval);
+        return interval;
+    }
+}
@@ -2,6 +2,7 @@ package com.joklek.rentbot.scraper;
 
 import java.math.BigDecimal;
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public abstract class PostDto {
@@ -19,6 +20,7 @@ public abstract class PostDto {
     private BigDecimal price;
     private Integer rooms;
     private Integer year;
+    private LocalDateTime firstSeenAt;
 
     public abstract String getSource();
 
@@ -147,4 +149,13 @@ public abstract class PostDto {
         this.year = year;
         return this;
     }
+
+    public Optional<LocalDateTime> getFirstSeenAt() {
+        return Optional.ofNullable(firstSeenAt);
+    }
+
+    public PostDto setFirstSeenAt(LocalDateTime firstSeenAt) {
+        this.firstSeenAt = firstSeenAt;
+        return this;
+    }
 }
@@ -3,5 +3,7 @@ package com.joklek.rentbot.scraper;
 import java.util.List;
 
 public interface Scraper {
+    String getSource();
+
     List<PostDto> getLatestPosts();
 }
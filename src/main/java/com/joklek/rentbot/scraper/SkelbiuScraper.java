@@ -1,12 +1,8 @@
 package com.joklek.rentbot.scraper;
 
-import com.joklek.rentbot.repo.PostRepo;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.WebElement;
 import org.openqa.selenium.WindowType;
-import org.openqa.selenium.firefox.FirefoxDriver;
-import org.openqa.selenium.firefox.FirefoxOptions;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
 
@@ -22,26 +18,27 @@ public class SkelbiuScraper implements Scraper {
     private static final Logger LOGGER = getLogger(SkelbiuScraper.class);
     private static final URI BASE_URL = URI.create("https://www.skelbiu.lt/skelbimai/?cities=465&category_id=322&cities=465&district=0&cost_min=&cost_max=&status=0&space_min=&space_max=&rooms_min=&rooms_max=&building=0&year_min=&year_max=&floor_min=&floor_max=&floor_type=0&user_type=0&type=1&orderBy=1&import=2&keywords=");
 
-    private final PostRepo posts;
+    private final KnownPostIndex knownPosts;
+    private final ListPageState listPage = new ListPageState();
+    private final WebDriverPool drivers;
 
-    public SkelbiuScraper(PostRepo posts) {
-        this.posts = posts;
+    public SkelbiuScraper(KnownPostIndex knownPosts, WebDriverPool drivers) {
+        this.knownPosts = knownPosts;
+        this.drivers = drivers;
+    }
+
+    @Override
+    public String getSource() {
+        return SkelbiuPost.SOURCE;
     }
 
     @Override
     public List<PostDto> getLatestPosts() {
-        var options = new FirefoxOptions().addArguments("-headless");
-        var driver = new FirefoxDriver(options);
-        try {
-            return getPosts(driver);
-        } catch (Exception e) {
-            throw e; // TODO
-        } finally {
-            driver.quit();
-        }
+        var newIds = drivers.withDriver(this::getNewIds);
+        return drivers.mapInParallel(newIds, this::processItem);
     }
 
-    private List<PostDto> getPosts(WebDriver driver) {
+    private List<String> getNewIds(WebDriver driver) {
         driver.get(BASE_URL.toString());
         var rawPosts = driver.findElements(By.cssSelector("div.standard-list-container > div > a.standard-list-item[data-item-id]"));
         if (rawPosts.isEmpty()) {
@@ -49,19 +46,15 @@ public class SkelbiuScraper implements Scraper {
             return List.of();
         }
 
-        return rawPosts.stream()
-                .map(rawPost -> processItem(rawPost, driver))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
+        var ids = rawPosts.stream()
+                .map(rawPost -> rawPost.getAttribute("data-item-id"))
                 .toList();
+        var newestIds = knownPosts.takeNewest(SkelbiuPost.SOURCE, ids, id -> id);
+        return List.copyOf(listPage.findUnknown(SkelbiuPost.SOURCE, newestIds, knownPosts));
     }
 
-    private Optional<PostDto> processItem(WebElement rawPost, WebDriver driver) {
+    private Optional<PostDto> processItem(String skelbiuId, WebDriver driver) {
         var originalWindow = driver.getWindowHandle();
-        var skelbiuId = rawPost.getAttribute("data-item-id");
-        if (posts.existsByExternalIdAndSource(skelbiuId, SkelbiuPost.SOURCE)) {
-            return Optional.empty();
-        }
 
         var link = URI.create(String.format("https://skelbiu.lt/skelbimai/%s.html", skelbiuId));
         driver.switchTo().newWindow(WindowType.TAB).get(link.toString());
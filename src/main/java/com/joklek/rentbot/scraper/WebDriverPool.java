@@ -0,0 +1,208 @@
+package com.joklek.rentbot.scraper;
+
+import jakarta.annotation.PreDestroy;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+// Starting Firefox takes seconds and a lot of memory, so browsers are kept between scrapes and shared by Selenium scrapers
+@Component
+public class WebDriverPool {
+    private static final Logger LOGGER = getLogger(WebDriverPool.class);
+
+    private final int size;
+    private final int maxUses;
+    private final Supplier<WebDriver> driverFactory;
+    private final Semaphore permits;
+    private final BlockingDeque<PooledDriver> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledDriver> all = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private volatile boolean closed = false;
+
+    @Autowired
+    public WebDriverPool(@Value("${application.scraper.webdriver.pool-size}") int size,
+                         @Value("${application.scraper.webdriver.max-uses}") int maxUses,
+                         @Value("${application.scraper.webdriver.block-resources}") boolean blockResources,
+                         @Value("${application.scraper.webdriver.blocked-hosts}") List<String> blockedHosts) {
+        this(size, maxUses, () -> createDriver(blockResources, blockedHosts.stream()
+                .map(String::trim)
+                .filter(host -> !host.isEmpty())
+                .toList()));
+    }
+
+    WebDriverPool(int size, int maxUses, Supplier<WebDriver> driverFactory) {
+        this.size = size;
+        this.maxUses = maxUses;
+        this.driverFactory = driverFactory;
+        this.permits = new Semaphore(size, true);
+    }
+
+    public <T> T withDriver(Function<WebDriver, T> work) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a browser", e);
+        }
+        PooledDriver pooled = null;
+        var healthy = false;
+        try {
+            pooled = borrow();
+            var result = work.apply(pooled.driver());
+            healthy = true;
+            return result;
+        } catch (WebDriverException e) {
+            // A crashed or hung browser can't be trusted for the next scrape
+            LOGGER.warn("Browser failed, it will be replaced", e);
+            throw e;
+        } finally {
+            if (pooled != null) {
+                giveBack(pooled, healthy);
+            }
+            permits.release();
+        }
+    }
+
+    // Splits items between as many browsers as the pool allows, each browser works through its share one by one
+    public <T, R> List<R> mapInParallel(List<T> items, BiFunction<T, WebDriver, Optional<R>> work) {
+        var parallelism = Math.min(size, items.size());
+        var results = new ArrayList<Optional<R>>(Collections.nCopies(items.size(), Optional.empty()));
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var worker = 0; worker < parallelism; worker++) {
+                var first = worker;
+                executor.submit(() -> {
+                    try {
+                        withDriver(driver -> {
+                            for (var i = first; i < items.size(); i += parallelism) {
+                                results.set(i, work.apply(items.get(i), driver));
+                            }
+                            return null;
+                        });
+                    } catch (Exception e) {
+                        LOGGER.error("Failed to process items in browser", e);
+                    }
+                });
+            }
+        }
+        return results.stream()
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        all.forEach(this::quit);
+    }
+
+    private PooledDriver borrow() {
+        PooledDriver pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isHealthy(pooled)) {
+                return pooled;
+            }
+            quit(pooled);
+        }
+        var created = new PooledDriver(driverFactory.get());
+        all.add(created);
+        return created;
+    }
+
+    private void giveBack(PooledDriver pooled, boolean healthy) {
+        pooled.uses++;
+        if (!healthy || closed || pooled.uses >= maxUses) {
+            quit(pooled);
+            return;
+        }
+        idle.offerFirst(pooled);
+    }
+
+    // Closes tabs left open by a scrape that failed half way and checks the browser still responds
+    private boolean isHealthy(PooledDriver pooled) {
+        try {
+            var driver = pooled.driver();
+            var windows = driver.getWindowHandles().stream().toList();
+            for (var i = 1; i < windows.size(); i++) {
+                driver.switchTo().window(windows.get(i)).close();
+            }
+            driver.switchTo().window(windows.get(0));
+            return true;
+        } catch (Exception e) {
+            LOGGER.warn("Pooled browser is not responding, replacing it", e);
+            return false;
+        }
+    }
+
+    private void quit(PooledDriver pooled) {
+        all.remove(pooled);
+        try {
+            pooled.driver().quit();
+        } catch (Exception e) {
+            LOGGER.warn("Failed to quit browser", e);
+        }
+    }
+
+    private static WebDriver createDriver(boolean blockResources, List<String> blockedHosts) {
+        var options = new FirefoxOptions().addArguments("-headless");
+        if (blockResources) {
+            // Scrapers only read text, so images, fonts, ads and trackers are just load time
+            options.setPageLoadStrategy(PageLoadStrategy.EAGER)
+                    .addPreference("permissions.default.image", 2)
+                    .addPreference("browser.display.use_document_fonts", 0)
+                    .addPreference("gfx.downloadable_fonts.enabled", false)
+                    .addPreference("media.autoplay.default", 5)
+                    .addPreference("privacy.trackingprotection.enabled", true);
+            if (!blockedHosts.isEmpty()) {
+                options.addPreference("network.proxy.type", 2)
+                        .addPreference("network.proxy.autoconfig_url", blockingProxyScript(blockedHosts));
+            }
+        }
+        return new FirefoxDriver(options);
+    }
+
+    // Requests to blocked hosts go to a proxy that doesn't exist and fail right away, everything else goes direct
+    static String blockingProxyScript(List<String> blockedHosts) {
+        var conditions = blockedHosts.stream()
+                .map(host -> String.format("host == '%1$s' || dnsDomainIs(host, '.%1$s')", host))
+                .collect(Collectors.joining(" || "));
+        var script = String.format("function FindProxyForURL(url, host) { if (%s) { return 'PROXY 127.0.0.1:9'; } return 'DIRECT'; }", conditions);
+        return "data:application/x-ns-proxy-autoconfig," + URLEncoder.encode(script, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private static final class PooledDriver {
+        private final WebDriver driver;
+        private int uses = 0;
+
+        private PooledDriver(WebDriver driver) {
+            this.driver = driver;
+        }
+
+        private WebDriver driver() {
+            return driver;
+        }
+    }
+}
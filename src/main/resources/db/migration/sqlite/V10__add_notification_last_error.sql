@@ -0,0 +1,2 @@
+ALTER TABLE notifications
+ADD COLUMN last_error VARCHAR(255) NULL;
@@ -0,0 +1,5 @@
+ALTER TABLE posts
+ADD COLUMN first_seen_at TIMESTAMP NULL;
+ALTER TABLE notifications
+ADD COLUMN delivered_at TIMESTAMP NULL;
+CREATE INDEX IF NOT EXISTS notifications_delivered_at ON notifications (delivered_at);
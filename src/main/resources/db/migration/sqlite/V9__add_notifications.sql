@@ -0,0 +1,12 @@
+CREATE TABLE notifications
+(
+    id              INTEGER     NOT NULL PRIMARY KEY AUTOINCREMENT UNIQUE,
+    post_id         INTEGER     NOT NULL REFERENCES posts (id),
+    telegram_id     INTEGER     NOT NULL,
+    state           VARCHAR(15) NOT NULL,
+    attempts        INTEGER     NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP   NOT NULL,
+    created_at      TIMESTAMP   NOT NULL
+);
+CREATE UNIQUE INDEX IF NOT EXISTS notifications_post_telegram_ids ON notifications (post_id, telegram_id);
+CREATE INDEX IF NOT EXISTS notifications_state_next_attempt_at ON notifications (state, next_attempt_at);
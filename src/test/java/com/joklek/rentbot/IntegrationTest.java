@@ -1,5 +1,8 @@
 package com.joklek.rentbot;
 
+import com.joklek.rentbot.scraper.KnownPostIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
@@ -15,4 +18,13 @@ import org.springframework.test.context.jdbc.Sql;
 @Sql(executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD,
         scripts = {"classpath:db/testdata/sqlite/clear_db.sql"})
 public abstract class IntegrationTest {
+
+    @Autowired
+    private KnownPostIndex knownPostIndex;
+
+    // The database is cleared for every test, the index of saved posts has to follow
+    @BeforeEach
+    void resetKnownPosts() {
+        knownPostIndex.warmUp();
+    }
 }
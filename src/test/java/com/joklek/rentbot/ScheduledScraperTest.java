@@ -0,0 +1,102 @@
+package com.joklek.rentbot;
+
+import com.joklek.rentbot.notification.PostPublisher;
+import com.joklek.rentbot.repo.PostRepo;
+import com.joklek.rentbot.scraper.KnownPostIndex;
+import com.joklek.rentbot.scraper.PollingIntervalEstimator;
+import com.joklek.rentbot.scraper.PostDto;
+import com.joklek.rentbot.scraper.Scraper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mockito;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScheduledScraperTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "2024-05-10T12:00, PT10M, 2024-05-10T12:10:30",
+            "2024-05-10T22:40, PT10M, 2024-05-10T22:50:30",
+            "2024-05-10T22:55, PT10M, 2024-05-11T06:00:30",
+            "2024-05-10T23:30, PT0S, 2024-05-11T06:00:30",
+            "2024-05-11T00:10, PT10M, 2024-05-11T06:00:30",
+            "2024-05-11T05:45, PT10M, 2024-05-11T06:00:30",
+            "2024-05-11T05:55, PT10M, 2024-05-11T06:05:30"
+    })
+    void nextScrape__waitsForMorningDuringNightPause(LocalDateTime now, Duration interval, LocalDateTime expected) {
+        assertThat(ScheduledScraper.nextScrape(now, interval, 30)).isEqualTo(expected);
+    }
+
+    @Test
+    void scrape__whileCancelledScrapeStillRuns__skipsScraper() throws Exception {
+        var release = new CountDownLatch(1);
+        var scraper = new StuckScraper(release);
+        var meterRegistry = new SimpleMeterRegistry();
+        var scheduledScraper = new ScheduledScraper(List.of(scraper), new KnownPostIndex(Mockito.mock(PostRepo.class)),
+                Mockito.mock(PostPublisher.class), Mockito.mock(PollingIntervalEstimator.class), Duration.ofMillis(100), meterRegistry);
+        var registrar = new ScheduledTaskRegistrar();
+        scheduledScraper.configureTasks(registrar);
+        var scrape = registrar.getTriggerTaskList().get(0).getRunnable();
+        try {
+            scrape.run();
+            scrape.run();
+
+            assertThat(scraper.calls).hasValue(1);
+            assertThat(meterRegistry.counter("rentbot.scrape.failures", "source", "STUCK", "reason", "overlap").count()).isEqualTo(1);
+
+            release.countDown();
+            assertThat(scraper.finished.await(1, TimeUnit.SECONDS)).isTrue();
+            var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+            while (scraper.calls.get() < 2 && System.nanoTime() < deadline) {
+                scrape.run();
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+
+            assertThat(scraper.calls).hasValue(2);
+        } finally {
+            release.countDown();
+            scheduledScraper.shutdown();
+        }
+    }
+
+    // Ignores interrupts like a Selenium call does
+    private static class StuckScraper implements Scraper {
+        private final CountDownLatch release;
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private final AtomicInteger calls = new AtomicInteger();
+
+        StuckScraper(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public String getSource() {
+            return "STUCK";
+        }
+
+        @Override
+        public List<PostDto> getLatestPosts() {
+            calls.incrementAndGet();
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                    // Keeps waiting
+                }
+            }
+            finished.countDown();
+            return List.of();
+        }
+    }
+}
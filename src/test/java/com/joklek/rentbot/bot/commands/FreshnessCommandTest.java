@@ -0,0 +1,64 @@
+package com.joklek.rentbot.bot.commands;
+
+import com.joklek.rentbot.notification.FreshnessReport;
+import com.pengrad.telegrambot.model.Chat;
+import com.pengrad.telegrambot.model.Message;
+import com.pengrad.telegrambot.model.Update;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class FreshnessCommandTest {
+
+    private static final Long ADMIN_ID = 9999L;
+
+    private final FreshnessReport freshnessReport = Mockito.mock(FreshnessReport.class);
+    private final FreshnessCommand command = new FreshnessCommand(freshnessReport, Set.of(ADMIN_ID));
+    private final Update update = Mockito.mock(Update.class);
+    private final Message message = Mockito.mock(Message.class);
+    private final Chat chat = Mockito.mock(Chat.class);
+
+    @BeforeEach
+    void setUp() {
+        when(update.message()).thenReturn(message);
+        when(message.chat()).thenReturn(chat);
+        when(chat.id()).thenReturn(ADMIN_ID);
+        when(freshnessReport.since(any())).thenReturn(Map.of());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"'', 7", "abc, 7", "-1, 7", "3, 3", "30, 30", "365, 30"})
+    void handle__reportsDaysAskedForUpToMonth(String payload, int days) {
+        var before = LocalDateTime.now();
+
+        var response = command.handle(update, payload);
+
+        var since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(freshnessReport).since(since.capture());
+        assertThat(since.getValue()).isBetween(before.minusDays(days), LocalDateTime.now().minusDays(days));
+        assertThat(response.get(0).getParameters()).containsEntry("text", String.format("No posts delivered in the last %d days", days));
+    }
+
+    @Test
+    void handle__whenNotAdmin__ignoresCommand() {
+        when(chat.id()).thenReturn(ADMIN_ID + 1);
+
+        var response = command.handle(update, "7");
+
+        assertThat(response).isEmpty();
+        verifyNoInteractions(freshnessReport);
+    }
+}
@@ -0,0 +1,53 @@
+package com.joklek.rentbot.config;
+
+import com.joklek.rentbot.IntegrationTest;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DataSourceConfigTest extends IntegrationTest {
+
+    @Autowired
+    private HikariDataSource sqliteWriter;
+    @Autowired
+    private HikariDataSource sqliteReaders;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void connections__useWalAndConfiguredPragmas() {
+        assertThat(jdbc.queryForObject("PRAGMA journal_mode", String.class)).isEqualTo("wal");
+        assertThat(jdbc.queryForObject("PRAGMA synchronous", Integer.class)).isEqualTo(1);
+        assertThat(jdbc.queryForObject("PRAGMA busy_timeout", Integer.class)).isEqualTo(10_000);
+        assertThat(jdbc.queryForObject("PRAGMA cache_size", Integer.class)).isEqualTo(-16_384);
+    }
+
+    @Test
+    void writingTransaction__usesTheWriter() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbc.queryForObject("SELECT 1", Integer.class);
+
+            assertThat(sqliteWriter.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+            assertThat(sqliteReaders.getHikariPoolMXBean().getActiveConnections()).isZero();
+        });
+    }
+
+    @Test
+    void readOnlyTransaction__usesAReader() {
+        var readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            jdbc.queryForObject("SELECT 1", Integer.class);
+
+            assertThat(sqliteWriter.getHikariPoolMXBean().getActiveConnections()).isZero();
+            assertThat(sqliteReaders.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package com.joklek.rentbot.entities;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DescriptionHasherTest {
+
+    private final DescriptionHasher hasher = new DescriptionHasher();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Nuomojamas butas",
+            "  Nuomojamas\tbutas\n\nŽirmūnuose  ",
+            "\u0001Butas\u0002",
+            "Butas 🏠 centre",
+            "Butas \uD83C \uDFE0",
+            "Butas \uDFE0\uD83C"
+    })
+    void hash__sameAsStrippingAndHashingUtf8(String description) throws NoSuchAlgorithmException {
+        assertThat(hasher.hash(description)).isEqualTo(legacyHash(description));
+    }
+
+    @Test
+    void hash__sameAsStrippingAndHashingUtf8ForLongText() throws NoSuchAlgorithmException {
+        var description = "Ilgas aprašymas. ".repeat(200);
+        assertThat(hasher.hash(description)).isEqualTo(legacyHash(description));
+    }
+
+    @Test
+    void hash__sameAsStrippingAndHashingUtf8OnRandomText() throws NoSuchAlgorithmException {
+        var random = new Random(19);
+        var alphabet = "ab šž\t\n\u000B\u0001€🏠".toCharArray();
+        for (var i = 0; i < 10_000; i++) {
+            var text = new StringBuilder();
+            var length = random.nextInt(30);
+            for (var j = 0; j < length; j++) {
+                text.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            var description = text.toString();
+            assertThat(hasher.hash(description)).as(description).isEqualTo(legacyHash(description));
+        }
+    }
+
+    private static String legacyHash(String description) throws NoSuchAlgorithmException {
+        var messageDigest = MessageDigest.getInstance("SHA-256");
+        messageDigest.update(description.replaceAll("\\s", "").trim().getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(messageDigest.digest());
+    }
+}
@@ -0,0 +1,104 @@
+package com.joklek.rentbot.entities;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeeDetectorTest {
+
+    private final FeeDetector feeDetector = new FeeDetector();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Jeigu butas tiks, bus taikomas vienkartinis tarpininkavimo mokestis",
+            "Agentūros mokestis - 300",
+            "Tarpininkavimo mokestis: 200 eur",
+            "Yra mokestis) už sutarties sudarymą",
+            "Nuomojamas butas (yra mokestis)",
+            "Sutarties sudarymo mokestis 100",
+            "Butas tvarkingas.\nTaikomas tarpininkavimas",
+            "Butas tvarkingas.\ntaikomas tarpininkavimas",
+            "Ar tiks? Bus taikomas",
+            "Vienkartinis agentūros mokestis, jei sudarysime sutartį",
+            "100 eur vienkartinis tarpininkavimo mokestis",
+            "Naujos statybos name, šildymas centrinis. Nuoma 500 eur."
+    })
+    void isWithFees__sameAsRegexesOverReplacedText(String description) {
+        assertThat(feeDetector.isWithFees(description)).isEqualTo(LegacyFeeDetector.isWithFees(description));
+    }
+
+    @Test
+    void isWithFees__detectsFees() {
+        assertThat(feeDetector.isWithFees("Jeigu butas tiks, bus taikomas vienkartinis tarpininkavimo mokestis")).isTrue();
+        assertThat(feeDetector.isWithFees("Naujos statybos name, šildymas centrinis. Nuoma 500 eur.")).isFalse();
+    }
+
+    @Test
+    void isWithFees__sameAsRegexesOverReplacedText_forGeneratedDescriptions() {
+        var fragments = List.of("Butas", "yra", "ira", "bus", "taikomas", "imamas", "vienkartinis", "agentūros", "AGENTŪROS",
+                "tarpininkavimo", "Tarpininkavimo", "mokestis", "mokesčio", "sutarties", "sudarymo", "tiks", "jei", "už", "ir",
+                "300", "50eur", "(", ")", ",", ".", "!", "-", ":", "\n", " ", " ", " ", "šildymas", "Į", "Ųž");
+        var random = new Random(17);
+        for (var i = 0; i < 20_000; i++) {
+            var description = new StringBuilder();
+            var length = random.nextInt(30);
+            for (var j = 0; j < length; j++) {
+                description.append(fragments.get(random.nextInt(fragments.size())));
+                if (random.nextBoolean()) {
+                    description.append(' ');
+                }
+            }
+            var text = description.toString();
+            assertThat(feeDetector.isWithFees(text)).as(text).isEqualTo(LegacyFeeDetector.isWithFees(text));
+        }
+    }
+
+    // What PostEntityConverter did before, kept to check the automaton against
+    private static class LegacyFeeDetector {
+        private static final Map<String, String> LETTER_REPLACE_MAP = Map.of(
+                "ą", "a", "č", "c", "ę", "e", "ė", "e", "į", "i", "š", "s", "ų", "u", "ū", "u", "ž", "z", "y", "i");
+
+        private static final List<String> FEE_KEYWORDS = List.of(
+                "(ira mokestis)",
+                "mokestis (jei butas",
+                "\ntaikomas tarpininkavimas",
+                "tiks vienkartinis tarpinink"
+        );
+
+        private static final List<Pattern> FEE_PATTERNS = List.of(
+                Pattern.compile("(agent|tarpinink|vienkart)\\S+ mokestis[\\s:-]{0,3}\\d+", Pattern.CASE_INSENSITIVE),
+                Pattern.compile("\\d+\\s?\\S+ (agent|tarpinink|vienkart)\\S+ (tarp|mokest)\\S+", Pattern.CASE_INSENSITIVE),
+                Pattern.compile("\\W(ira|bus) (taikoma(s|)|imama(s|)|vienkartinis|agent\\S+)( vienkartinis|) (agent|tarpinink|mokest)\\S+", Pattern.CASE_INSENSITIVE),
+                Pattern.compile("\\Wtiks[^\\s\\w]?\\s?(bus|ira|) (taikoma(s|)|imama(s|))", Pattern.CASE_INSENSITIVE),
+                Pattern.compile("\\W(ira |)(taikoma(s|)|imama(s|)|vienkartinis|sutarties)( sutarties|) sudar\\S+ mokestis", Pattern.CASE_INSENSITIVE),
+                Pattern.compile("(ui|ir) (ira |)(taikoma(s|)|imama(s|)) (vienkart|agent|tarpinink|mokest)\\S+", Pattern.CASE_INSENSITIVE),
+                Pattern.compile("(vienkartinis |)(agent|tarpinink)\\S+ mokest\\S+,? jei", Pattern.CASE_INSENSITIVE),
+                Pattern.compile("[^\\w\\s](\\s|)(taikoma(s|)|imama(s|)|vienkartinis|agent\\S+)( vienkartinis|) (agent|tarpinink|mokest)\\S+", Pattern.CASE_INSENSITIVE)
+        );
+
+        static boolean isWithFees(String description) {
+            var descriptionSimplified = description;
+            for (var entry : LETTER_REPLACE_MAP.entrySet()) {
+                descriptionSimplified = descriptionSimplified.replace(entry.getKey(), entry.getValue());
+            }
+            for (var keyword : FEE_KEYWORDS) {
+                if (descriptionSimplified.contains(keyword)) {
+                    return true;
+                }
+            }
+            for (var feePattern : FEE_PATTERNS) {
+                if (feePattern.matcher(descriptionSimplified).find()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.joklek.rentbot.entities;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HouseNumberExtractorTest {
+
+    private final HouseNumberExtractor extractor = new HouseNumberExtractor();
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "Butas Gedimino pr. 5, centre|Gedimino pr.|5",
+            "Gedimino pr.12a. Tvarkingas|Gedimino pr.|12a",
+            "Adresas: Žirmūnų g 34-12|Žirmūnų g|34",
+            "žirmūnų g 34|Žirmūnų g|",
+            "SAVANORIŲ 176B!|Savanorių|",
+            "Savanorių 1234 butas, Savanorių 17|Savanorių|17",
+            "Vilniaus 12-a|Vilniaus|",
+            "Vilniaus 7|Vilniaus|7",
+            "Vilniaus  7|Vilniaus|",
+            "Kalvarijų (senamiestis) 5;|Kalvarijų (senamiestis)|5",
+            "Kalvarijų 5 Kalvarijų 6|Kalvarijų|5"
+    })
+    void extract__sameAsQuotedRegex(String description, String street, String expected) {
+        assertThat(extractor.extract(description, street)).isEqualTo(Optional.ofNullable(expected));
+        assertThat(extractor.extract(description, street)).isEqualTo(regexExtract(description, street));
+    }
+
+    @Test
+    void extract__doesNotTreatStreetAsRegex() {
+        assertThat(extractor.extract("Gedimino prX 5", "Gedimino pr.")).isEmpty();
+    }
+
+    @Test
+    void extract__matchesRegexOnRandomText() {
+        var random = new Random(18);
+        var alphabet = "aAbBgG 0123456789-.,;!\n\tšŠ\u0085".toCharArray();
+        var streets = new String[]{"ab", "AB g", "š", "g."};
+        for (var i = 0; i < 20_000; i++) {
+            var text = new StringBuilder();
+            var length = random.nextInt(20);
+            for (var j = 0; j < length; j++) {
+                text.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            var street = streets[random.nextInt(streets.length)];
+            var description = text.toString();
+            assertThat(extractor.extract(description, street))
+                    .as("%s in '%s'", street, description)
+                    .isEqualTo(regexExtract(description, street));
+        }
+    }
+
+    private static Optional<String> regexExtract(String description, String street) {
+        var matcher = Pattern.compile(Pattern.quote(street) + " ?(\\d{1,3}[A-Z]?)(\\s|(-\\d)|\\.|,|;|!|$)", Pattern.CASE_INSENSITIVE)
+                .matcher(description);
+        return matcher.find() ? Optional.of(matcher.group(1)) : Optional.empty();
+    }
+}
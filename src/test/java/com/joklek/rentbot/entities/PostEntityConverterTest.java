@@ -1,14 +1,55 @@
 package com.joklek.rentbot.entities;
 
+import com.joklek.rentbot.scraper.PostDto;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 class PostEntityConverterTest {
 
-    private final PostEntityConverter converter = new PostEntityConverter();
+    private final PostEntityConverter converter = new PostEntityConverter(new FeeDetector(), new HouseNumberExtractor(), new DescriptionHasher());
 
     @Test
     void isWithFees() {
 //        assertThat(converter.isWithFees("Jeigu butas tiks, bus taikomas vienkartinis tarpininkavimo mokestis"))
 //                .isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    void convert__emitsConversionEvent(@TempDir Path dir) throws IOException {
+        var post = new TestPost();
+        post.setExternalId("123");
+        post.setLink(URI.create("https://example.com/123"));
+        post.setDescription("Butas be mokesčių");
+
+        var file = dir.resolve("conversion.jfr");
+        try (var recording = new Recording()) {
+            recording.enable("rentbot.PostConversion");
+            recording.start();
+            converter.convert(post);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        assertThat(RecordingFile.readAllEvents(file)).singleElement().satisfies(event -> {
+            assertThat(event.getEventType().getName()).isEqualTo("rentbot.PostConversion");
+            assertThat(event.getString("source")).isEqualTo("TEST");
+            assertThat(event.getString("externalId")).isEqualTo("123");
+            assertThat(event.getInt("descriptionLength")).isEqualTo(17);
+        });
+    }
+
+    private static class TestPost extends PostDto {
+        @Override
+        public String getSource() {
+            return "TEST";
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.joklek.rentbot.matching;
+
+import com.joklek.rentbot.IntegrationTest;
+import com.joklek.rentbot.entities.District;
+import com.joklek.rentbot.entities.Post;
+import com.joklek.rentbot.entities.User;
+import com.joklek.rentbot.repo.DistrictRepo;
+import com.joklek.rentbot.repo.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SubscriptionMatcherTest extends IntegrationTest {
+
+    @Autowired
+    private SubscriptionMatcher matcher;
+    @Autowired
+    private UserRepo users;
+    @Autowired
+    private DistrictRepo districts;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static final Long CHAT_ID = 9999L;
+    private static final Long OTHER_CHAT_ID = 8888L;
+
+    @BeforeEach
+    void setUp() {
+        matcher.warmUp();
+    }
+
+    @Test
+    void match__whenPostInPriceRange__userIsInterested() {
+        createUser(CHAT_ID, 100, 500);
+        createUser(OTHER_CHAT_ID, 600, null);
+
+        assertThat(match(createPost(300, null, false))).containsExactly(CHAT_ID);
+        assertThat(match(createPost(700, null, false))).containsExactly(OTHER_CHAT_ID);
+        assertThat(match(createPost(50, null, false))).isEmpty();
+    }
+
+    @Test
+    void match__whenPostWithFees__onlyUsersShowingFeesAreInterested() {
+        var user = createUser(CHAT_ID, 100, 500);
+        createUser(OTHER_CHAT_ID, 100, 500);
+        user.setShowWithFees(true);
+        users.save(user);
+
+        assertThat(match(createPost(300, null, true))).containsExactly(CHAT_ID);
+    }
+
+    @Test
+    void match__whenFilteringByDistrict__onlyPostsFromSelectedOrUnknownDistrictsMatch() {
+        var district = districts.findAllByOrderByNameAsc().get(0);
+        var otherDistrict = districts.findAllByOrderByNameAsc().get(1);
+        var user = createUser(CHAT_ID, 100, 500);
+        user.setFilterByDistrict(true);
+        user.getDistricts().add(district);
+        users.save(user);
+        createUser(OTHER_CHAT_ID, 100, 500);
+
+        assertThat(match(createPost(300, district, false))).containsExactlyInAnyOrder(CHAT_ID, OTHER_CHAT_ID);
+        assertThat(match(createPost(300, otherDistrict, false))).containsExactly(OTHER_CHAT_ID);
+        var postFromUnknownDistrict = createPost(300, null, false);
+        postFromUnknownDistrict.setDistrict("Unknown district");
+        assertThat(match(postFromUnknownDistrict)).containsExactlyInAnyOrder(CHAT_ID, OTHER_CHAT_ID);
+    }
+
+    @Test
+    void match__whenUserDisabled__userIsNotInterested() {
+        var user = createUser(CHAT_ID, 100, 500);
+        user.setEnabled(false);
+        users.save(user);
+
+        assertThat(match(createPost(300, null, false))).isEmpty();
+    }
+
+    @Test
+    void matchAll__groupsPostsByInterestedUser() {
+        createUser(CHAT_ID, 100, 500);
+        createUser(OTHER_CHAT_ID, 400, null);
+        var cheap = createPost(200, null, false);
+        var middle = createPost(450, null, false);
+        var expensive = createPost(900, null, false);
+        var tooCheap = createPost(50, null, false);
+
+        var interested = matcher.matchAll(List.of(expensive, cheap, tooCheap, middle));
+
+        assertThat(interested).containsOnlyKeys(CHAT_ID, OTHER_CHAT_ID);
+        assertThat(interested.get(CHAT_ID)).containsExactly(cheap, middle);
+        assertThat(interested.get(OTHER_CHAT_ID)).containsExactly(expensive, middle);
+    }
+
+    @Test
+    void matchAll__whenPostHasNoPrice__onlyUsersWithoutPriceRangeAreInterested() {
+        createUser(CHAT_ID, 100, 500);
+        createUser(OTHER_CHAT_ID, null, null);
+        var cheap = createPost(200, null, false);
+        var unpriced = createPost(200, null, false);
+        unpriced.setPrice(null);
+        var expensive = createPost(900, null, false);
+
+        var interested = matcher.matchAll(List.of(expensive, unpriced, cheap));
+
+        assertThat(interested.get(CHAT_ID)).containsExactly(cheap);
+        assertThat(interested.get(OTHER_CHAT_ID)).containsExactly(expensive, unpriced, cheap);
+    }
+
+    @Test
+    void matchAll__matchesSameUsersAsEachPostAlone() {
+        var user = createUser(CHAT_ID, 100, 500);
+        user.setRoomsMin(3);
+        users.save(user);
+        createUser(OTHER_CHAT_ID, 100, 500);
+        createUser(7777L, null, 350);
+        var posts = List.of(createPost(300, null, false), createPost(450, null, true), createPost(90, null, false));
+
+        var interested = matcher.matchAll(posts);
+
+        for (var post : posts) {
+            var alone = match(post);
+            assertThat(interested.entrySet())
+                    .filteredOn(entry -> entry.getValue().contains(post))
+                    .extracting(Map.Entry::getKey)
+                    .containsExactlyInAnyOrderElementsOf(alone);
+        }
+    }
+
+    @Test
+    void refresh__whenSaveRolledBack__keepsCommittedSettings() {
+        createUser(CHAT_ID, 100, 500);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            var user = users.findByTelegramId(CHAT_ID).orElseThrow();
+            user.setPriceMin(BigDecimal.valueOf(600));
+            users.save(user);
+            status.setRollbackOnly();
+        });
+
+        assertThat(match(createPost(300, null, false))).containsExactly(CHAT_ID);
+    }
+
+    private Set<Long> match(Post post) {
+        return matcher.matchAll(List.of(post)).keySet();
+    }
+
+    private User createUser(Long chatId, Integer priceMin, Integer priceMax) {
+        var user = new User(chatId);
+        user.setPriceMin(priceMin == null ? null : BigDecimal.valueOf(priceMin));
+        user.setPriceMax(priceMax == null ? null : BigDecimal.valueOf(priceMax));
+        user.setRoomsMin(1);
+        user.setRoomsMax(3);
+        user.setFloorMin(1);
+        user.setEnabled(true);
+        return users.save(user);
+    }
+
+    private Post createPost(int price, District district, boolean withFees) {
+        var post = new Post();
+        post.setPrice(BigDecimal.valueOf(price));
+        post.setRooms(2);
+        post.setFloor(2);
+        post.setWithFees(withFees);
+        if (district != null) {
+            post.setDistrict(district.getName());
+        }
+        return post;
+    }
+}
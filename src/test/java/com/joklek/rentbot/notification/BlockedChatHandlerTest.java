@@ -0,0 +1,50 @@
+package com.joklek.rentbot.notification;
+
+import com.joklek.rentbot.IntegrationTest;
+import com.joklek.rentbot.entities.Notification;
+import com.joklek.rentbot.entities.User;
+import com.joklek.rentbot.matching.SubscriptionMatcher;
+import com.joklek.rentbot.repo.NotificationRepo;
+import com.joklek.rentbot.repo.UserRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlockedChatHandlerTest extends IntegrationTest {
+
+    @Autowired
+    private BlockedChatHandler blockedChats;
+    @Autowired
+    private PostPublisher postPublisher;
+    @Autowired
+    private SubscriptionMatcher matcher;
+    @Autowired
+    private UserRepo users;
+    @Autowired
+    private NotificationRepo notifications;
+
+    private static final Long CHAT_ID = 9999L;
+
+    @Test
+    void onBlocked__disablesUserAndFailsPendingNotifications() {
+        matcher.warmUp();
+        var user = new User(CHAT_ID);
+        user.setEnabled(true);
+        users.save(user);
+        postPublisher.publish(List.of(TestPosts.scraped("1", 300), TestPosts.scraped("2", 300)));
+        assertThat(notifications.countByState(Notification.State.PENDING)).isEqualTo(2);
+
+        blockedChats.onBlocked(CHAT_ID, "403: Forbidden: bot was blocked by the user");
+
+        assertThat(users.getByTelegramId(CHAT_ID).getEnabled()).isFalse();
+        assertThat(notifications.countByState(Notification.State.FAILED)).isEqualTo(2);
+        assertThat(notifications.findAll()).allSatisfy(notification ->
+                assertThat(notification.getLastError()).contains("403: Forbidden: bot was blocked by the user"));
+
+        postPublisher.publish(List.of(TestPosts.scraped("3", 300)));
+        assertThat(notifications.countByState(Notification.State.PENDING)).isZero();
+    }
+}
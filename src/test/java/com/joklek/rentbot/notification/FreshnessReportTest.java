@@ -0,0 +1,88 @@
+package com.joklek.rentbot.notification;
+
+import com.joklek.rentbot.IntegrationTest;
+import com.joklek.rentbot.matching.SubscriptionMatcher;
+import com.joklek.rentbot.repo.NotificationRepo;
+import com.joklek.rentbot.repo.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FreshnessReportTest extends IntegrationTest {
+
+    @Autowired
+    private FreshnessReport freshnessReport;
+    @Autowired
+    private PostPublisher postPublisher;
+    @Autowired
+    private SubscriptionMatcher matcher;
+    @Autowired
+    private UserRepo users;
+    @Autowired
+    private NotificationRepo notifications;
+
+    private static final Long CHAT_ID = 9999L;
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        matcher.warmUp();
+        users.save(TestPosts.interestedUser(CHAT_ID));
+    }
+
+    @Test
+    void since__summarizesDeliveredPostsPerSource() {
+        deliver("ALIO", "1", Duration.ofSeconds(30));
+        deliver("ALIO", "2", Duration.ofMinutes(3));
+        deliver("ALIO", "3", Duration.ofMinutes(20));
+        deliver("KAMPAS", "1", Duration.ofHours(7));
+
+        var report = freshnessReport.since(NOW.minusDays(1));
+
+        assertThat(report.keySet()).containsExactly("ALIO", "KAMPAS", FreshnessReport.ALL_SOURCES);
+        var alio = report.get("ALIO");
+        assertThat(alio.count()).isEqualTo(3);
+        assertThat(alio.p50()).isEqualTo(Duration.ofMinutes(3));
+        assertThat(alio.p90()).isEqualTo(Duration.ofMinutes(20));
+        assertThat(alio.p99()).isEqualTo(Duration.ofMinutes(20));
+        assertThat(alio.max()).isEqualTo(Duration.ofMinutes(20));
+        assertThat(alio.histogram()).containsExactly(1, 1, 0, 1, 0, 0);
+        assertThat(report.get("KAMPAS").histogram()).containsExactly(0, 0, 0, 0, 0, 1);
+        assertThat(report.get(FreshnessReport.ALL_SOURCES).count()).isEqualTo(4);
+        assertThat(report.get(FreshnessReport.ALL_SOURCES).p50()).isEqualTo(Duration.ofMinutes(3));
+        assertThat(report.get(FreshnessReport.ALL_SOURCES).max()).isEqualTo(Duration.ofHours(7));
+        assertThat(report.get(FreshnessReport.ALL_SOURCES).histogram()).containsExactly(1, 1, 0, 1, 0, 1);
+    }
+
+    @Test
+    void since__ignoresUndeliveredAndOlderNotifications() {
+        publish("ALIO", "1", NOW.minusMinutes(5));
+        deliver("ALIO", "2", Duration.ofMinutes(1), NOW.minusDays(3));
+
+        assertThat(freshnessReport.since(NOW.minusDays(1))).isEmpty();
+    }
+
+    private void deliver(String source, String externalId, Duration freshness) {
+        deliver(source, externalId, freshness, NOW);
+    }
+
+    private void deliver(String source, String externalId, Duration freshness, LocalDateTime deliveredAt) {
+        var post = publish(source, externalId, deliveredAt.minus(freshness));
+        var notification = notifications.findAll().stream()
+                .filter(n -> n.getPost().getId().equals(post))
+                .findFirst().orElseThrow();
+        notifications.markSent(notification.getId(), deliveredAt);
+    }
+
+    private Long publish(String source, String externalId, LocalDateTime firstSeenAt) {
+        var post = TestPosts.scraped(source, externalId, 300);
+        post.setFirstSeenAt(firstSeenAt);
+        return postPublisher.publish(List.of(post)).get(0).getId();
+    }
+}
@@ -0,0 +1,97 @@
+package com.joklek.rentbot.notification;
+
+import com.joklek.rentbot.IntegrationTest;
+import com.joklek.rentbot.bot.PostResponseCreator;
+import com.joklek.rentbot.entities.Notification;
+import com.joklek.rentbot.entities.Post;
+import com.joklek.rentbot.replay.FakeTelegramApi;
+import com.joklek.rentbot.repo.NotificationRepo;
+import com.joklek.rentbot.repo.PostRepo;
+import com.pengrad.telegrambot.TelegramBot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationSenderTest extends IntegrationTest {
+
+    private static final long BUSY_CHAT_ID = 1111L;
+    private static final long OTHER_CHAT_ID = 2222L;
+
+    @Autowired
+    private NotificationRepo notifications;
+    @Autowired
+    private PostRepo posts;
+    @Autowired
+    private PostResponseCreator postResponseCreator;
+    @Autowired
+    private BlockedChatHandler blockedChats;
+    @Autowired
+    private TelegramMetrics metrics;
+
+    @Test
+    void send__whenOneChatHasAFullBatchPending__otherChatsAreNotStuckBehindIt() throws Exception {
+        var savedPosts = posts.saveAll(IntStream.range(0, 150).mapToObj(this::createPost).toList());
+        var outbox = new ArrayList<Notification>();
+        savedPosts.forEach(post -> outbox.add(new Notification(post, BUSY_CHAT_ID)));
+        outbox.add(new Notification(savedPosts.get(0), OTHER_CHAT_ID));
+        notifications.saveAll(outbox);
+
+        try (var telegram = new FakeTelegramApi(0)) {
+            runSender(telegram, Duration.ofHours(1), () -> telegram.deliveries().stream().anyMatch(delivery -> delivery.chatId() == OTHER_CHAT_ID));
+
+            assertThat(telegram.deliveries()).anyMatch(delivery -> delivery.chatId() == OTHER_CHAT_ID);
+            // One per chat interval, never a second copy of the same row
+            assertThat(telegram.deliveries()).filteredOn(delivery -> delivery.chatId() == BUSY_CHAT_ID).hasSizeLessThanOrEqualTo(6);
+        }
+    }
+
+    @Test
+    void send__whenThrottledForTooLong__notificationFails() throws Exception {
+        var post = posts.save(createPost(0));
+        notifications.save(new Notification(post, OTHER_CHAT_ID));
+
+        try (var telegram = new FakeTelegramApi(1)) {
+            runSender(telegram, Duration.ofMillis(500), () -> notifications.countByState(Notification.State.FAILED) > 0);
+
+            assertThat(notifications.countByState(Notification.State.FAILED)).isEqualTo(1);
+            assertThat(telegram.throttled()).isGreaterThanOrEqualTo(2);
+            assertThat(telegram.deliveries()).isEmpty();
+        }
+    }
+
+    private void runSender(FakeTelegramApi telegram, Duration maxThrottledAge, BooleanSupplier done) throws InterruptedException {
+        var bot = new TelegramBot.Builder("sender").apiUrl(telegram.apiUrl()).build();
+        var sender = new NotificationSender(bot, notifications, postResponseCreator, blockedChats, metrics,
+                30, Duration.ofSeconds(1), 100, 5, maxThrottledAge, Duration.ofMillis(100));
+        sender.start();
+        try {
+            var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!done.getAsBoolean() && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(20);
+            }
+        } finally {
+            sender.stop();
+            bot.shutdown();
+        }
+    }
+
+    private Post createPost(int i) {
+        var post = new Post();
+        post.setWithFees(false);
+        post.setExternalId(String.valueOf(i));
+        post.setSource("SOURCE");
+        post.setLink("https://example.com/" + i);
+        post.setPrice(BigDecimal.valueOf(300));
+        post.setCreatedAt(LocalDateTime.now());
+        return post;
+    }
+}
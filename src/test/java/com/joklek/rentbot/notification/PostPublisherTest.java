@@ -0,0 +1,90 @@
+package com.joklek.rentbot.notification;
+
+import com.joklek.rentbot.IntegrationTest;
+import com.joklek.rentbot.entities.Notification;
+import com.joklek.rentbot.matching.SubscriptionMatcher;
+import com.joklek.rentbot.repo.NotificationRepo;
+import com.joklek.rentbot.repo.PostRepo;
+import com.joklek.rentbot.repo.UserRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostPublisherTest extends IntegrationTest {
+
+    @Autowired
+    private PostPublisher postPublisher;
+    @Autowired
+    private SubscriptionMatcher matcher;
+    @Autowired
+    private UserRepo users;
+    @Autowired
+    private PostRepo posts;
+    @Autowired
+    private NotificationRepo notifications;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final Long CHAT_ID = 9999L;
+
+    @BeforeEach
+    void setUp() {
+        matcher.warmUp();
+        users.save(TestPosts.interestedUser(CHAT_ID));
+    }
+
+    @Test
+    void publish__savesPostsAndPendingNotificationsForInterestedUsers() {
+        var published = postPublisher.publish(List.of(TestPosts.scraped("1", 300), TestPosts.scraped("2", 900)));
+
+        assertThat(posts.count()).isEqualTo(2);
+        var due = notifications.findByStateAndNextAttemptAtLessThanEqualOrderByIdAsc(Notification.State.PENDING, LocalDateTime.now(), Limit.of(10));
+        assertThat(due).hasSize(1);
+        assertThat(due.get(0).getTelegramId()).isEqualTo(CHAT_ID);
+        assertThat(due.get(0).getPost().getId()).isEqualTo(published.get(0).getId());
+    }
+
+    @Test
+    void publish__recordsConversionMatchingAndCreatedNotifications() {
+        var converted = meterRegistry.timer("rentbot.post.convert", "source", "TEST").count();
+        var matched = meterRegistry.timer("rentbot.match").count();
+        var created = meterRegistry.counter("rentbot.notifications.created", "source", "TEST").count();
+
+        postPublisher.publish(List.of(TestPosts.scraped("1", 300), TestPosts.scraped("2", 900)));
+
+        assertThat(meterRegistry.timer("rentbot.post.convert", "source", "TEST").count()).isEqualTo(converted + 2);
+        assertThat(meterRegistry.timer("rentbot.match").count()).isEqualTo(matched + 1);
+        assertThat(meterRegistry.counter("rentbot.notifications.created", "source", "TEST").count()).isEqualTo(created + 1);
+    }
+
+    @Test
+    void markSent__notificationIsNoLongerPending() {
+        postPublisher.publish(List.of(TestPosts.scraped("1", 300)));
+        var notification = notifications.findAll().get(0);
+
+        notifications.markSent(notification.getId(), LocalDateTime.now());
+
+        assertThat(notifications.countByState(Notification.State.PENDING)).isZero();
+        assertThat(notifications.countByState(Notification.State.SENT)).isEqualTo(1);
+    }
+
+    @Test
+    void markAttemptFailed__whenOutOfAttempts__notificationFails() {
+        postPublisher.publish(List.of(TestPosts.scraped("1", 300)));
+        var notification = notifications.findAll().get(0);
+
+        notifications.markAttemptFailed(notification.getId(), LocalDateTime.now().plusMinutes(1), 2, "timeout");
+        assertThat(notifications.countByState(Notification.State.PENDING)).isEqualTo(1);
+        assertThat(notifications.findByStateAndNextAttemptAtLessThanEqualOrderByIdAsc(Notification.State.PENDING, LocalDateTime.now(), Limit.of(10))).isEmpty();
+
+        notifications.markAttemptFailed(notification.getId(), LocalDateTime.now(), 2, "timeout");
+        assertThat(notifications.countByState(Notification.State.FAILED)).isEqualTo(1);
+    }
+}
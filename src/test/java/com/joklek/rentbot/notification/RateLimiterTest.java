@@ -0,0 +1,54 @@
+package com.joklek.rentbot.notification;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    void tryAcquire__whenChatWasJustMessaged__waitsForChatInterval() {
+        var rateLimiter = new RateLimiter(30, Duration.ofSeconds(1), 0);
+
+        assertThat(rateLimiter.tryAcquire(1L, 0)).isZero();
+        assertThat(rateLimiter.tryAcquire(1L, SECOND / 4)).isEqualTo(SECOND * 3 / 4);
+        assertThat(rateLimiter.tryAcquire(2L, SECOND / 4)).isZero();
+        assertThat(rateLimiter.tryAcquire(1L, SECOND)).isZero();
+    }
+
+    @Test
+    void tryAcquire__whenGlobalLimitReached__waitsForTokenRefill() {
+        var rateLimiter = new RateLimiter(30, Duration.ofSeconds(1), 0);
+        for (long chatId = 0; chatId < 30; chatId++) {
+            assertThat(rateLimiter.tryAcquire(chatId, 0)).isZero();
+        }
+
+        assertThat(rateLimiter.tryAcquire(100L, 0)).isEqualTo(SECOND / 30);
+        assertThat(rateLimiter.tryAcquire(100L, SECOND / 30)).isZero();
+    }
+
+    @Test
+    void tryAcquire__whenPaused__noChatCanSendUntilPauseEnds() {
+        var rateLimiter = new RateLimiter(30, Duration.ofSeconds(1), 0);
+
+        rateLimiter.pause(2 * SECOND);
+
+        assertThat(rateLimiter.tryAcquire(1L, SECOND)).isEqualTo(SECOND + SECOND / 30);
+        assertThat(rateLimiter.tryAcquire(2L, 2 * SECOND)).isEqualTo(SECOND / 30);
+        assertThat(rateLimiter.tryAcquire(2L, 2 * SECOND + SECOND / 30)).isZero();
+    }
+
+    @Test
+    void pause__whenAlreadyPausedLonger__keepsLongerPause() {
+        var rateLimiter = new RateLimiter(30, Duration.ofSeconds(1), 0);
+
+        rateLimiter.pause(3 * SECOND);
+        rateLimiter.pause(SECOND);
+
+        assertThat(rateLimiter.tryAcquire(1L, 2 * SECOND)).isEqualTo(SECOND + SECOND / 30);
+    }
+}
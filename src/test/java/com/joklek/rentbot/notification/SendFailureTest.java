@@ -0,0 +1,50 @@
+package com.joklek.rentbot.notification;
+
+import com.pengrad.telegrambot.response.SendResponse;
+import com.pengrad.telegrambot.utility.BotUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SendFailureTest {
+
+    @Test
+    void of__whenTooManyRequests__isThrottledWithRetryAfter() {
+        var failure = SendFailure.of(response("{\"ok\":false,\"error_code\":429,\"description\":\"Too Many Requests: retry after 7\",\"parameters\":{\"retry_after\":7}}"));
+
+        assertThat(failure.type()).isEqualTo(SendFailure.Type.THROTTLED);
+        assertThat(failure.retryAfter()).contains(Duration.ofSeconds(7));
+        assertThat(failure.isRetryable()).isTrue();
+    }
+
+    @Test
+    void of__whenBotBlocked__isBlocked() {
+        var failure = SendFailure.of(response("{\"ok\":false,\"error_code\":403,\"description\":\"Forbidden: bot was blocked by the user\"}"));
+
+        assertThat(failure.type()).isEqualTo(SendFailure.Type.BLOCKED);
+        assertThat(failure.isRetryable()).isFalse();
+    }
+
+    @Test
+    void of__whenBadRequest__isRejected() {
+        var failure = SendFailure.of(response("{\"ok\":false,\"error_code\":400,\"description\":\"Bad Request: can't parse entities\"}"));
+
+        assertThat(failure.type()).isEqualTo(SendFailure.Type.REJECTED);
+        assertThat(failure.isRetryable()).isFalse();
+    }
+
+    @Test
+    void of__whenNetworkError__isTransient() {
+        var failure = SendFailure.of(new IOException("timeout"));
+
+        assertThat(failure.type()).isEqualTo(SendFailure.Type.TRANSIENT);
+        assertThat(failure.isRetryable()).isTrue();
+    }
+
+    private static SendResponse response(String json) {
+        return BotUtils.fromJson(json, SendResponse.class);
+    }
+}
@@ -0,0 +1,26 @@
+package com.joklek.rentbot.notification;
+
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TelegramMetricsTest {
+
+    @Test
+    void delivered__freshnessHasReportBucketsAsSlos() {
+        var meterRegistry = new SimpleMeterRegistry();
+
+        new TelegramMetrics(meterRegistry).delivered("TEST", Duration.ofMinutes(3));
+
+        var buckets = meterRegistry.timer("rentbot.freshness", "source", "TEST").takeSnapshot().histogramCounts();
+        assertThat(Arrays.stream(buckets).map(bucket -> Duration.ofNanos((long) bucket.bucket(TimeUnit.NANOSECONDS))))
+                .containsExactlyElementsOf(FreshnessReport.BUCKETS);
+        assertThat(Arrays.stream(buckets).map(CountAtBucket::count)).containsExactly(0.0, 1.0, 1.0, 1.0, 1.0);
+    }
+}
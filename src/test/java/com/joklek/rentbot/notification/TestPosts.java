@@ -0,0 +1,49 @@
+package com.joklek.rentbot.notification;
+
+import com.joklek.rentbot.entities.User;
+import com.joklek.rentbot.scraper.PostDto;
+
+import java.math.BigDecimal;
+import java.net.URI;
+
+// Scraped posts and a user interested in them, for tests that publish through PostPublisher
+final class TestPosts {
+    static final String SOURCE = "TEST";
+
+    private TestPosts() {
+    }
+
+    static PostDto scraped(String externalId, int price) {
+        return scraped(SOURCE, externalId, price);
+    }
+
+    static PostDto scraped(String source, String externalId, int price) {
+        var post = new TestPost(source);
+        post.setExternalId(externalId);
+        post.setLink(URI.create("https://example.com/" + externalId));
+        post.setPrice(BigDecimal.valueOf(price));
+        return post;
+    }
+
+    // Wants anything from 100 to 500
+    static User interestedUser(Long chatId) {
+        var user = new User(chatId);
+        user.setPriceMin(BigDecimal.valueOf(100));
+        user.setPriceMax(BigDecimal.valueOf(500));
+        user.setEnabled(true);
+        return user;
+    }
+
+    private static class TestPost extends PostDto {
+        private final String source;
+
+        TestPost(String source) {
+            this.source = source;
+        }
+
+        @Override
+        public String getSource() {
+            return source;
+        }
+    }
+}
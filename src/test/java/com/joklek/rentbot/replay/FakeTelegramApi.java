@@ -0,0 +1,90 @@
+package com.joklek.rentbot.replay;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Answers sendMessage like the Bot API does and records who got what when.
+// Every throttleEvery-th call is refused with a 429 asking to retry after a second
+public class FakeTelegramApi implements AutoCloseable {
+    private static final String THROTTLED = "{\"ok\":false,\"error_code\":429,\"description\":\"Too Many Requests: retry after 1\",\"parameters\":{\"retry_after\":1}}";
+
+    private final HttpServer server;
+    private final int throttleEvery;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger throttled = new AtomicInteger();
+    private final AtomicInteger messageIds = new AtomicInteger();
+    private final Queue<Delivery> deliveries = new ConcurrentLinkedQueue<>();
+
+    public record Delivery(long chatId, long deliveredAt) {
+    }
+
+    public FakeTelegramApi(int throttleEvery) throws IOException {
+        this.throttleEvery = throttleEvery;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public String apiUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/bot";
+    }
+
+    public List<Delivery> deliveries() {
+        return List.copyOf(deliveries);
+    }
+
+    public int throttled() {
+        return throttled.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestURI().getPath().endsWith("/sendMessage")) {
+                respond(exchange, 404, "{\"ok\":false,\"error_code\":404,\"description\":\"Not Found\"}");
+                return;
+            }
+            var chatId = chatId(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            if (throttleEvery > 0 && calls.incrementAndGet() % throttleEvery == 0) {
+                throttled.incrementAndGet();
+                respond(exchange, 429, THROTTLED);
+                return;
+            }
+            deliveries.add(new Delivery(chatId, System.nanoTime()));
+            respond(exchange, 200, String.format("{\"ok\":true,\"result\":{\"message_id\":%d,\"date\":0,\"chat\":{\"id\":%d,\"type\":\"private\"}}}",
+                    messageIds.incrementAndGet(), chatId));
+        }
+    }
+
+    private static long chatId(String form) {
+        for (var field : form.split("&")) {
+            var separator = field.indexOf('=');
+            if (separator > 0 && field.substring(0, separator).equals("chat_id")) {
+                return Long.parseLong(URLDecoder.decode(field.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        throw new IllegalArgumentException("No chat_id in " + form);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        var bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
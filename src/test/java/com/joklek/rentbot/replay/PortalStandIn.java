@@ -0,0 +1,145 @@
+package com.joklek.rentbot.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Serves list and detail pages of Alio, Capital, Domoplius and Kampas built from the hand-written fixtures.
+// Listings are dealt to the portals in turn, each detail page gets the listing's price
+class PortalStandIn implements AutoCloseable {
+    private static final int KAMPAS_PAGE_SIZE = 50;
+    private static final Pattern KAMPAS_PAGE = Pattern.compile("\"page\":(\\d+)");
+    private static final Pattern ALIO_ITEM = Pattern.compile("/skelbimai/ID(\\d+)\\.html");
+    private static final Pattern CAPITAL_ITEM = Pattern.compile("/lt/p(\\d+)");
+    private static final Pattern DOMOPLIUS_ITEM = Pattern.compile("/skelbimai/-(\\d+)\\.html");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+    private final List<Listing> alio = new ArrayList<>();
+    private final List<Listing> capital = new ArrayList<>();
+    private final List<Listing> domoplius = new ArrayList<>();
+    private final List<Listing> kampas = new ArrayList<>();
+    private final String alioItem = fixture("alio-item.html");
+    private final String capitalItem = fixture("capital-item.html");
+    private final String domopliusItem = fixture("domoplius-item.html");
+    private final ObjectNode kampasHit;
+
+    record Listing(String id, int price) {
+    }
+
+    PortalStandIn(List<Listing> listings) throws IOException {
+        var portals = List.of(alio, capital, domoplius, kampas);
+        for (var i = 0; i < listings.size(); i++) {
+            portals.get(i % portals.size()).add(listings.get(i));
+        }
+        kampasHit = (ObjectNode) mapper.readTree(fixture("kampas-search.json")).get("hits").get(0);
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    URI uri() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            var path = exchange.getRequestURI().getPath();
+            var host = path.substring(1, path.indexOf('/', 1));
+            var page = path.substring(host.length() + 1);
+            var body = switch (host) {
+                case "www.alio.lt" -> page.startsWith("/paieska") ? alioList() : item(alioItem, ">550 €<", alio, ALIO_ITEM, page);
+                case "www.capital.lt" -> page.startsWith("/lt/nekilnojamas-turtas") ? capitalList() : item(capitalItem, "Nuoma: 650 €", capital, CAPITAL_ITEM, page);
+                case "m.domoplius.lt" -> page.startsWith("/skelbimai/butai") ? domopliusList() : item(domopliusItem, ">480 €<", domoplius, DOMOPLIUS_ITEM, page);
+                case "www.kampas.lt" -> kampasPage(exchange.getRequestURI().getQuery());
+                default -> null;
+            };
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            var bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", host.equals("www.kampas.lt") ? "application/json" : "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+
+    private String alioList() {
+        return alio.stream()
+                .map(listing -> String.format("<a class=\"result\" href=\"https://www.alio.lt/skelbimai/ID%s.html\">Butas</a>", listing.id()))
+                .collect(Collectors.joining("\n", "<html><body><div id=\"main_left_b\"><div id=\"main-content-center\">", "</div></div></body></html>"));
+    }
+
+    private String capitalList() {
+        return capital.stream()
+                .map(listing -> String.format("<a id=\"item-%s\" href=\"https://www.capital.lt/lt/p%1$s\">Butas</a>", listing.id()))
+                .collect(Collectors.joining("\n", "<html><body><div class=\"realty-items\">", "</div></body></html>"));
+    }
+
+    private String domopliusList() {
+        return domoplius.stream()
+                .map(listing -> String.format("<li id=\"ann_%s\"><a href=\"https://m.domoplius.lt/skelbimai/-%1$s.html\">Butas</a></li>", listing.id()))
+                .collect(Collectors.joining("\n", "<html><body><ul class=\"list\">", "</ul></body></html>"));
+    }
+
+    private static String item(String template, String price, List<Listing> listings, Pattern itemPath, String page) {
+        var matcher = itemPath.matcher(page);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return listings.stream()
+                .filter(listing -> listing.id().equals(matcher.group(1)))
+                .findFirst()
+                .map(listing -> template.replace(price, price.replaceAll("\\d+", String.valueOf(listing.price()))))
+                .orElse(null);
+    }
+
+    private String kampasPage(String query) throws IOException {
+        var matcher = KAMPAS_PAGE.matcher(query);
+        var page = matcher.find() ? Integer.parseInt(matcher.group(1)) : 1;
+        var hits = mapper.createArrayNode();
+        kampas.stream()
+                .skip((long) (page - 1) * KAMPAS_PAGE_SIZE)
+                .limit(KAMPAS_PAGE_SIZE)
+                .forEach(listing -> {
+                    var hit = kampasHit.deepCopy();
+                    hit.put("id", Long.parseLong(listing.id()));
+                    hit.put("objectprice", listing.price());
+                    hit.put("description", kampasHit.get("description").asText().replace(kampasHit.get("id").asText(), listing.id()));
+                    hits.add(hit);
+                });
+        var result = mapper.createObjectNode();
+        result.put("total", kampas.size());
+        result.set("hits", hits);
+        return mapper.writeValueAsString(result);
+    }
+
+    private static String fixture(String name) {
+        try (var stream = PortalStandIn.class.getResourceAsStream("/fixtures/" + name)) {
+            return new String(Objects.requireNonNull(stream, name).readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
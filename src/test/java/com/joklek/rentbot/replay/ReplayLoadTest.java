@@ -0,0 +1,192 @@
+package com.joklek.rentbot.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.joklek.rentbot.IntegrationTest;
+import com.joklek.rentbot.ScheduledScraper;
+import com.joklek.rentbot.bot.PostResponseCreator;
+import com.joklek.rentbot.entities.Notification;
+import com.joklek.rentbot.matching.SubscriptionMatcher;
+import com.joklek.rentbot.notification.BlockedChatHandler;
+import com.joklek.rentbot.notification.NotificationSender;
+import com.joklek.rentbot.notification.PostPublisher;
+import com.joklek.rentbot.notification.TelegramMetrics;
+import com.joklek.rentbot.repo.NotificationRepo;
+import com.joklek.rentbot.repo.PostRepo;
+import com.joklek.rentbot.scraper.AlioScraper;
+import com.joklek.rentbot.scraper.CapitalScraper;
+import com.joklek.rentbot.scraper.DomopliusScraper;
+import com.joklek.rentbot.scraper.KampasScraper;
+import com.joklek.rentbot.scraper.KnownPostIndex;
+import com.joklek.rentbot.scraper.PollingIntervalEstimator;
+import com.joklek.rentbot.scraper.Scraper;
+import com.pengrad.telegrambot.TelegramBot;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.slf4j.LoggerFactory.getLogger;
+
+// Runs a scrape cycle and the notification outbox against portal pages built from the test fixtures and a fake Bot API.
+// The load scenario only runs when asked for: mvn test -Dtest=ReplayLoadTest -Dreplay.load=true [-Dreplay.users=50000 -Dreplay.posts=500 -Dreplay.price-range=20]
+class ReplayLoadTest extends IntegrationTest {
+    private static final Logger LOGGER = getLogger(ReplayLoadTest.class);
+    private static final AtomicLong NEXT_LISTING_ID = new AtomicLong(System.currentTimeMillis());
+    private static final int FIRST_PRICE = 300;
+    private static final long FIRST_TELEGRAM_ID = 1_000_000L;
+
+    @Autowired
+    private KnownPostIndex knownPosts;
+    @Autowired
+    private PostPublisher postPublisher;
+    @Autowired
+    private PollingIntervalEstimator pollingIntervals;
+    @Autowired
+    private SubscriptionMatcher subscriptions;
+    @Autowired
+    private PostResponseCreator postResponseCreator;
+    @Autowired
+    private BlockedChatHandler blockedChats;
+    @Autowired
+    private NotificationRepo notifications;
+    @Autowired
+    private PostRepo posts;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private TelegramMetrics telegramMetrics;
+
+    @AfterEach
+    void forgetSubscriptions() {
+        jdbc.update("DELETE FROM users");
+        subscriptions.warmUp();
+    }
+
+    @Test
+    void replay__deliversEveryMatchDespiteThrottling() throws Exception {
+        var report = replay(new Scenario(200, 40, 1, 10, 1_000, Duration.ZERO, Duration.ofMinutes(1)));
+
+        assertThat(report.posts()).isEqualTo(40);
+        assertThat(report.notifications()).isEqualTo(200);
+        assertThat(report.delivered()).isEqualTo(200);
+        assertThat(report.throttled()).isPositive();
+    }
+
+    @Test
+    void replay__whenUsersMatchManyPosts__deliversEveryMatchToEachChat() throws Exception {
+        var scenario = new Scenario(60, 40, 10, 0, 1_000, Duration.ofMillis(20), Duration.ofMinutes(1));
+
+        var report = replay(scenario);
+
+        assertThat(report.notifications()).isEqualTo(scenario.expectedNotifications()).isEqualTo(555);
+        assertThat(report.delivered()).isEqualTo(555);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "replay.load", matches = "true")
+    void replay__load() throws Exception {
+        var scenario = new Scenario(
+                Integer.getInteger("replay.users", 50_000),
+                Integer.getInteger("replay.posts", 500),
+                Integer.getInteger("replay.price-range", 1),
+                Integer.getInteger("replay.throttle-every", 0),
+                Integer.getInteger("replay.global-per-second", 30),
+                Duration.ofMillis(Long.getLong("replay.chat-interval-millis", 1_000)),
+                Duration.ofHours(2));
+
+        var report = replay(scenario);
+
+        assertThat(report.notifications()).isEqualTo(scenario.expectedNotifications());
+        assertThat(report.delivered()).isEqualTo(report.notifications());
+    }
+
+    // Posts cost one more than the previous one, user n wants priceRange prices starting at the price of post n % posts
+    private Report replay(Scenario scenario) throws Exception {
+        insertUsers(scenario);
+        subscriptions.warmUp();
+        knownPosts.warmUp();
+
+        var listings = IntStream.range(0, scenario.posts())
+                .mapToObj(i -> new PortalStandIn.Listing(String.valueOf(NEXT_LISTING_ID.incrementAndGet()), FIRST_PRICE + i))
+                .toList();
+        try (var portals = new PortalStandIn(listings); var telegram = new FakeTelegramApi(scenario.throttleEvery())) {
+            var client = new StandInHttpClient(portals.uri());
+            var requestTimeout = Duration.ofSeconds(10);
+            List<Scraper> scrapers = List.of(
+                    new AlioScraper(knownPosts, client, requestTimeout),
+                    new CapitalScraper(knownPosts, client, requestTimeout),
+                    new DomopliusScraper(knownPosts, client, requestTimeout),
+                    new KampasScraper(client, mapper, knownPosts));
+            var scheduledScraper = new ScheduledScraper(scrapers, knownPosts, postPublisher, pollingIntervals, scenario.timeout(), meterRegistry);
+            var registrar = new ScheduledTaskRegistrar();
+            scheduledScraper.configureTasks(registrar);
+            var bot = new TelegramBot.Builder("replay").apiUrl(telegram.apiUrl()).build();
+            var sender = new NotificationSender(bot, notifications, postResponseCreator, blockedChats, telegramMetrics,
+                    scenario.globalPerSecond(), scenario.chatInterval(), 500, 5, Duration.ofHours(1), Duration.ofMillis(100));
+
+            var start = System.nanoTime();
+            sender.start();
+            try {
+                try (var cycle = Executors.newVirtualThreadPerTaskExecutor()) {
+                    registrar.getTriggerTaskList().forEach(task -> cycle.submit(task.getRunnable()));
+                }
+                var scraped = System.nanoTime();
+                var deadline = start + scenario.timeout().toNanos();
+                while (notifications.countByState(Notification.State.PENDING) > 0 && System.nanoTime() < deadline) {
+                    TimeUnit.MILLISECONDS.sleep(50);
+                }
+
+                var deliveries = telegram.deliveries();
+                var lastDelivery = deliveries.stream().mapToLong(FakeTelegramApi.Delivery::deliveredAt).max().orElse(start);
+                var report = new Report(posts.count(), notifications.count(), deliveries.size(), telegram.throttled(),
+                        Duration.ofNanos(scraped - start), Duration.ofNanos(lastDelivery - start));
+                LOGGER.info("Replayed {} users and {} listings: {}", scenario.users(), scenario.posts(), report);
+                return report;
+            } finally {
+                sender.stop();
+                scheduledScraper.shutdown();
+                bot.shutdown();
+            }
+        }
+    }
+
+    private void insertUsers(Scenario scenario) {
+        var rows = new ArrayList<Object[]>(scenario.users());
+        for (var user = 0; user < scenario.users(); user++) {
+            var price = FIRST_PRICE + user % scenario.posts();
+            rows.add(new Object[]{FIRST_TELEGRAM_ID + user, price, price + scenario.priceRange() - 1});
+        }
+        jdbc.batchUpdate("INSERT INTO users (telegram_id, enabled, price_min, price_max, show_with_fees, filter_by_district) VALUES (?, 1, ?, ?, 1, 0)", rows);
+    }
+
+    private record Scenario(int users, int posts, int priceRange, int throttleEvery, int globalPerSecond, Duration chatInterval, Duration timeout) {
+
+        // Ranges starting near the most expensive post reach past it
+        long expectedNotifications() {
+            return IntStream.range(0, users)
+                    .map(user -> Math.min(priceRange, posts - user % posts))
+                    .asLongStream()
+                    .sum();
+        }
+    }
+
+    private record Report(long posts, long notifications, int delivered, int throttled, Duration scrapeTime, Duration timeToLastNotification) {
+    }
+}
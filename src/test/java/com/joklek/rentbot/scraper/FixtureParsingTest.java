@@ -0,0 +1,102 @@
+package com.joklek.rentbot.scraper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.joklek.rentbot.repo.PostRepo;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The fixtures are hand-written pages shaped like the portals' markup, not captures of live pages
+class FixtureParsingTest {
+
+    private final KnownPostIndex knownPosts = new KnownPostIndex(Mockito.mock(PostRepo.class));
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final Duration timeout = Duration.ofSeconds(1);
+
+    @Test
+    void alio__parsesDetailPageFixture() throws IOException {
+        var scraper = new AlioScraper(knownPosts, client, timeout);
+
+        var post = scraper.parseItem("123456", document("alio-item.html"));
+
+        assertThat(post.getLink()).hasToString("https://www.alio.lt/skelbimai/ID123456.html");
+        assertThat(post.getPhone()).contains("+37061234567");
+        assertThat(post.getDistrict()).contains("Naujamiestis");
+        assertThat(post.getStreet()).contains("Naugarduko g.");
+        assertThat(post.getFloor()).contains(3);
+        assertThat(post.getTotalFloors()).contains(5);
+        assertThat(post.getArea()).hasValueSatisfying(value -> assertThat(value).isEqualByComparingTo("45.5"));
+        assertThat(post.getPrice()).hasValueSatisfying(value -> assertThat(value).isEqualByComparingTo("550"));
+        assertThat(post.getRooms()).contains(2);
+        assertThat(post.getYear()).contains(1985);
+    }
+
+    @Test
+    void capital__parsesDetailPageFixture() throws IOException {
+        var scraper = new CapitalScraper(knownPosts, client, timeout);
+
+        var post = scraper.parseItem("123456", document("capital-item.html"));
+
+        assertThat(post.getPhone()).contains("+37062345678");
+        assertThat(post.getDescription()).hasValueSatisfying(description -> assertThat(description).doesNotContain("Trumpa nuoroda"));
+        assertThat(post.getStreet()).contains("Žirmūnų g.");
+        assertThat(post.getDistrict()).contains(" Žirmūnai");
+        assertThat(post.getFloor()).contains(3);
+        assertThat(post.getTotalFloors()).contains(5);
+        assertThat(post.getPrice()).hasValueSatisfying(value -> assertThat(value).isEqualByComparingTo("650"));
+        assertThat(post.getYear()).contains(1975);
+    }
+
+    @Test
+    void domoplius__parsesDetailPageFixture() throws IOException {
+        var scraper = new DomopliusScraper(knownPosts, client, timeout);
+
+        var post = scraper.parseItem("123456", document("domoplius-item.html"));
+
+        assertThat(post.getPhone()).contains("+37063456789");
+        assertThat(post.getDistrict()).contains("Antakalnis");
+        assertThat(post.getStreet()).contains("Antakalnio g.");
+        assertThat(post.getHeating()).contains("Centrinis");
+        assertThat(post.getFloor()).contains(2);
+        assertThat(post.getTotalFloors()).contains(5);
+        assertThat(post.getArea()).hasValueSatisfying(value -> assertThat(value).isEqualByComparingTo("38.5"));
+        assertThat(post.getPrice()).hasValueSatisfying(value -> assertThat(value).isEqualByComparingTo("480"));
+        assertThat(post.getRooms()).contains(1);
+        assertThat(post.getYear()).contains(1968);
+    }
+
+    @Test
+    void kampas__parsesSearchResultsFixture() throws IOException {
+        var scraper = new KampasScraper(client, new ObjectMapper(), knownPosts);
+
+        try (var json = fixture("kampas-search.json")) {
+            var posts = scraper.readNewestHits(json).stream().map(scraper::processItem).toList();
+
+            assertThat(posts).hasSize(20);
+            var post = posts.get(0);
+            assertThat(post.getExternalId()).isEqualTo("900100");
+            assertThat(post.getDescription()).hasValueSatisfying(description -> assertThat(description).endsWith("Skambinkite."));
+            assertThat(post.getHeating()).contains("centrinis");
+            assertThat(post.getPrice()).hasValueSatisfying(value -> assertThat(value).isEqualByComparingTo("600"));
+        }
+    }
+
+    private static org.jsoup.nodes.Document document(String name) throws IOException {
+        try (var html = fixture(name)) {
+            return Jsoup.parse(html, StandardCharsets.UTF_8.name(), "https://example.com/");
+        }
+    }
+
+    static InputStream fixture(String name) {
+        return Objects.requireNonNull(FixtureParsingTest.class.getResourceAsStream("/fixtures/" + name), name);
+    }
+}
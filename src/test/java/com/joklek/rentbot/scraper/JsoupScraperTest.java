@@ -0,0 +1,102 @@
+package com.joklek.rentbot.scraper;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsoupScraperTest {
+
+    private final TestScraper scraper = new TestScraper();
+
+    @Test
+    void fetchDetails__keepsOrderAndSkipsFailedItems() {
+        var posts = scraper.fetchDetails(List.of("1", "2", "broken", "3", "missing"), id -> {
+            if (id.equals("broken")) {
+                throw new IllegalStateException("Can't parse");
+            }
+            if (id.equals("missing")) {
+                return Optional.empty();
+            }
+            return Optional.of(new TestPost().setExternalId(id));
+        });
+
+        assertThat(posts).extracting(PostDto::getExternalId).containsExactly("1", "2", "3");
+    }
+
+    @Test
+    void fetchDetails__whenFetchThrowsError__failsScrape() {
+        var error = new StackOverflowError();
+
+        assertThatThrownBy(() -> scraper.fetchDetails(List.of("1", "2"), id -> {
+            if (id.equals("2")) {
+                throw error;
+            }
+            return Optional.of(new TestPost().setExternalId(id));
+        })).hasCause(error);
+    }
+
+    @Test
+    void getDocument__decodesGzippedBodyInDeclaredCharset() throws IOException {
+        var html = "<html><body><p id='text'>Šildymas: centrinis</p></body></html>";
+        var server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            var compressed = new ByteArrayOutputStream();
+            try (var gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(html.getBytes("windows-1257"));
+            }
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=windows-1257");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, compressed.size());
+            try (var body = exchange.getResponseBody()) {
+                body.write(compressed.toByteArray());
+            }
+        });
+        server.start();
+        try {
+            var document = scraper.getDocument(URI.create(String.format("http://localhost:%d/post", server.getAddress().getPort())));
+
+            assertThat(document).isPresent();
+            assertThat(document.get().select("#text").text()).isEqualTo("Šildymas: centrinis");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static class TestScraper extends JsoupScraper {
+
+        TestScraper() {
+            super(HttpClient.newHttpClient(), Duration.ofSeconds(1));
+        }
+
+        @Override
+        public String getSource() {
+            return TestPost.SOURCE;
+        }
+
+        @Override
+        public List<PostDto> getLatestPosts() {
+            return List.of();
+        }
+    }
+
+    private static class TestPost extends PostDto {
+        private static final String SOURCE = "TEST";
+
+        @Override
+        public String getSource() {
+            return SOURCE;
+        }
+    }
+}
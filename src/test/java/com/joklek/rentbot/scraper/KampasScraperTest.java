@@ -0,0 +1,97 @@
+package com.joklek.rentbot.scraper;
+
+import com.joklek.rentbot.IntegrationTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class KampasScraperTest extends IntegrationTest {
+
+    @Autowired
+    private KampasScraper scraper;
+    @Autowired
+    private KnownPostIndex knownPosts;
+
+    @Test
+    void readNewestHits__keepsOnlyFieldsUsedForPosts() throws IOException {
+        var json = """
+                {"total": 2, "facets": {"rooms": [1, 2, {"x": null}]}, "hits": [
+                  {"id": 101, "title": "Butas, Naujamiestis, Naugarduko g.", "objectprice": 550, "images": [{"url": "a.jpg"}], "agent": {"name": "x"}},
+                  {"id": 102, "objectprice": null, "features": ["central_heating"]}
+                ], "page": 1}
+                """;
+
+        var hits = scraper.readNewestHits(stream(json));
+
+        assertThat(hits).hasSize(2);
+        assertThat(hits.get(0).get("id").asText()).isEqualTo("101");
+        assertThat(hits.get(0).get("objectprice").asInt()).isEqualTo(550);
+        assertThat(hits.get(0).has("images")).isFalse();
+        assertThat(hits.get(0).has("agent")).isFalse();
+        assertThat(hits.get(1).get("features").get(0).asText()).isEqualTo("central_heating");
+    }
+
+    @Test
+    void readNewestHits__stopsAfterFewKnownPostsInARow() throws IOException {
+        knownPosts.add("KAMPAS", "2");
+        knownPosts.add("KAMPAS", "4");
+        knownPosts.add("KAMPAS", "5");
+        knownPosts.add("KAMPAS", "6");
+        var json = """
+                {"hits": [{"id": 1}, {"id": 2}, {"id": 3}, {"id": 4}, {"id": 5}, {"id": 6}, {"id": 7}]}
+                """;
+
+        var hits = scraper.readNewestHits(stream(json));
+
+        assertThat(hits).extracting(hit -> hit.get("id").asText()).containsExactly("1", "2", "3", "4", "5", "6");
+    }
+
+    @Test
+    void getLatestPosts__whenPostsShiftToNextPage__returnsEachPostOnce() throws Exception {
+        var client = Mockito.mock(HttpClient.class);
+        var pages = Map.of(
+                1, "{\"hits\": [{\"id\": 6, \"features\": []}, {\"id\": 5, \"features\": []}, {\"id\": 4, \"features\": []}]}",
+                2, "{\"hits\": [{\"id\": 5, \"features\": []}, {\"id\": 4, \"features\": []}, {\"id\": 3, \"features\": []}]}",
+                3, "{\"hits\": []}");
+        when(client.send(any(), ArgumentMatchers.<HttpResponse.BodyHandler<InputStream>>any())).thenAnswer(invocation -> {
+            var query = URLDecoder.decode(invocation.<HttpRequest>getArgument(0).uri().getRawQuery(), StandardCharsets.UTF_8);
+            var page = Integer.parseInt(query.replaceAll(".*\"page\":(\\d+).*", "$1"));
+            return response(pages.get(page));
+        });
+        var pagingScraper = new KampasScraper(client, new ObjectMapper(), knownPosts);
+
+        var posts = pagingScraper.getLatestPosts();
+
+        assertThat(posts).extracting(PostDto::getExternalId).containsExactly("6", "5", "4", "3");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<InputStream> response(String json) {
+        var response = (HttpResponse<InputStream>) Mockito.mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.headers()).thenReturn(HttpHeaders.of(Map.of(), (name, value) -> true));
+        when(response.body()).thenReturn(stream(json));
+        return response;
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
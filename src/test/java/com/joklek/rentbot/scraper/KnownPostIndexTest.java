@@ -0,0 +1,106 @@
+package com.joklek.rentbot.scraper;
+
+import com.joklek.rentbot.IntegrationTest;
+import com.joklek.rentbot.entities.Post;
+import com.joklek.rentbot.repo.PostRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KnownPostIndexTest extends IntegrationTest {
+
+    @Autowired
+    private KnownPostIndex knownPosts;
+    @Autowired
+    private PostRepo posts;
+
+    @Test
+    void isKnown__whenPostSavedBeforeWarmUp__isKnown() {
+        createPost("123", "SOURCE");
+
+        knownPosts.warmUp();
+
+        assertThat(knownPosts.isKnown("SOURCE", "123")).isTrue();
+        assertThat(knownPosts.isKnown("OTHER_SOURCE", "123")).isFalse();
+        assertThat(knownPosts.isKnown("SOURCE", "456")).isFalse();
+    }
+
+    @Test
+    void isKnown__whenPostAdded__isKnown() {
+        knownPosts.add("SOURCE", "789");
+
+        assertThat(knownPosts.isKnown("SOURCE", "789")).isTrue();
+    }
+
+    @Test
+    void warmUp__forgetsPostsThatAreNoLongerSaved() {
+        knownPosts.add("SOURCE", "789");
+
+        knownPosts.warmUp();
+
+        assertThat(knownPosts.isKnown("SOURCE", "789")).isFalse();
+    }
+
+    @Test
+    void findUnknown__returnsOnlyIdsNotSavedYet() {
+        createPost("123", "SOURCE");
+        knownPosts.warmUp();
+
+        var unknownIds = knownPosts.findUnknown("SOURCE", List.of("123", "456", "789"));
+
+        assertThat(unknownIds).containsExactly("456", "789");
+    }
+
+    @Test
+    void findExistingExternalIds__returnsSavedIdsOfSource() {
+        createPost("123", "SOURCE");
+        createPost("456", "OTHER_SOURCE");
+
+        var existingIds = posts.findExistingExternalIds("SOURCE", List.of("123", "456", "789"));
+
+        assertThat(existingIds).containsExactly("123");
+    }
+
+    @Test
+    void takeNewest__stopsAfterFewKnownIdsInARow() {
+        knownPosts.add("SOURCE", "2");
+        knownPosts.add("SOURCE", "4");
+        knownPosts.add("SOURCE", "5");
+        knownPosts.add("SOURCE", "6");
+
+        var newest = knownPosts.takeNewest("SOURCE", List.of("1", "2", "3", "4", "5", "6", "7"), id -> id);
+
+        assertThat(newest).containsExactly("1", "2", "3", "4", "5", "6");
+    }
+
+    @Test
+    void trackNewest__unknownIdResetsKnownInARow() {
+        knownPosts.add("SOURCE", "1");
+        knownPosts.add("SOURCE", "2");
+        knownPosts.add("SOURCE", "4");
+        knownPosts.add("SOURCE", "5");
+        knownPosts.add("SOURCE", "6");
+        var tracker = knownPosts.trackNewest("SOURCE");
+
+        assertThat(tracker.continueAfter("1")).isTrue();
+        assertThat(tracker.continueAfter("2")).isTrue();
+        assertThat(tracker.continueAfter("3")).isTrue();
+        assertThat(tracker.continueAfter("4")).isTrue();
+        assertThat(tracker.continueAfter("5")).isTrue();
+        assertThat(tracker.continueAfter("6")).isFalse();
+    }
+
+    private void createPost(String externalId, String source) {
+        var post = new Post();
+        post.setWithFees(false);
+        post.setExternalId(externalId);
+        post.setSource(source);
+        post.setLink("EXTERNAL_LINK");
+        post.setCreatedAt(LocalDateTime.now());
+        posts.save(post);
+    }
+}
@@ -0,0 +1,53 @@
+package com.joklek.rentbot.scraper;
+
+import com.joklek.rentbot.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ListPageStateTest extends IntegrationTest {
+
+    private static final String SOURCE = "SOURCE";
+
+    @Autowired
+    private KnownPostIndex knownPosts;
+
+    private final ListPageState listPage = new ListPageState();
+
+    @Test
+    void findUnknown__whenListHasNewPosts__keepsCheckingUntilTheyAreSaved() {
+        listPage.record(headers("\"v1\""));
+
+        assertThat(listPage.findUnknown(SOURCE, List.of("1", "2"), knownPosts)).containsExactly("1", "2");
+        assertThat(listPage.findUnknown(SOURCE, List.of("1", "2"), knownPosts)).containsExactly("1", "2");
+        assertThat(validators()).isEmpty();
+    }
+
+    @Test
+    void findUnknown__whenEverythingOnListIsKnown__remembersListAndValidators() {
+        knownPosts.add(SOURCE, "3");
+        knownPosts.add(SOURCE, "4");
+        listPage.record(headers("\"v2\""));
+
+        assertThat(listPage.findUnknown(SOURCE, List.of("3", "4"), knownPosts)).isEmpty();
+
+        assertThat(validators()).containsEntry("If-None-Match", List.of("\"v2\""));
+        assertThat(listPage.findUnknown(SOURCE, List.of("5", "3", "4"), knownPosts)).containsExactly("5");
+    }
+
+    private Map<String, List<String>> validators() {
+        var request = listPage.addValidators(HttpRequest.newBuilder(URI.create("https://example.com"))).build();
+        return request.headers().map();
+    }
+
+    private static HttpHeaders headers(String etag) {
+        return HttpHeaders.of(Map.of("ETag", List.of(etag)), (name, value) -> true);
+    }
+}
@@ -0,0 +1,36 @@
+package com.joklek.rentbot.scraper;
+
+import com.joklek.rentbot.repo.PostRepo;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+class PollingIntervalEstimatorTest {
+
+    private final PostRepo posts = Mockito.mock(PostRepo.class);
+
+    @ParameterizedTest
+    @CsvSource({
+            // 7 days have 119 active hours
+            "P7D, 0, PT30M",
+            "P7D, 10, PT30M",
+            "P7D, 238, PT15M",
+            "P7D, 10000, PT2M",
+            // Shorter or partial days count the active part of every hour
+            "PT12H, 17, PT15M",
+            "PT36H, 51, PT15M"
+    })
+    void getInterval__pollsTwicePerExpectedPostWithinLimits(Duration history, long postCount, Duration expected) {
+        when(posts.countBySourceAndCreatedAtAfter(eq("SOURCE"), any())).thenReturn(postCount);
+        var estimator = new PollingIntervalEstimator(posts, Duration.ofMinutes(2), Duration.ofMinutes(30), history);
+
+        assertThat(estimator.getInterval("SOURCE")).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,136 @@
+package com.joklek.rentbot.scraper;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WebDriverPoolTest {
+
+    private final List<WebDriver> created = new ArrayList<>();
+
+    @Test
+    void withDriver__neverLendsMoreBrowsersThanPoolSize() throws InterruptedException {
+        var pool = new WebDriverPool(2, 100, this::createDriver);
+        var active = new AtomicInteger();
+        var maxActive = new AtomicInteger();
+        var started = new CountDownLatch(2);
+        var release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var i = 0; i < 5; i++) {
+                executor.submit(() -> pool.withDriver(driver -> {
+                    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    started.countDown();
+                    await(release);
+                    active.decrementAndGet();
+                    return null;
+                }));
+            }
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            TimeUnit.MILLISECONDS.sleep(100);
+            assertThat(active.get()).isEqualTo(2);
+            release.countDown();
+        }
+
+        assertThat(maxActive.get()).isEqualTo(2);
+        assertThat(created).hasSize(2);
+    }
+
+    @Test
+    void withDriver__reusesBrowserUntilMaxUses() {
+        var pool = new WebDriverPool(1, 2, this::createDriver);
+
+        var first = pool.withDriver(driver -> driver);
+        var second = pool.withDriver(driver -> driver);
+        var third = pool.withDriver(driver -> driver);
+
+        assertThat(second).isSameAs(first);
+        assertThat(third).isNotSameAs(first);
+        verify(first).quit();
+        verify(third, never()).quit();
+    }
+
+    @Test
+    void withDriver__whenBrowserFailed__replacesIt() {
+        var pool = new WebDriverPool(1, 100, this::createDriver);
+        var broken = pool.withDriver(driver -> driver);
+
+        assertThatThrownBy(() -> pool.withDriver(driver -> {
+            throw new WebDriverException("crashed");
+        })).isInstanceOf(WebDriverException.class);
+        var next = pool.withDriver(driver -> driver);
+
+        verify(broken).quit();
+        assertThat(next).isNotSameAs(broken);
+    }
+
+    @Test
+    void withDriver__whenIdleBrowserStoppedResponding__replacesIt() {
+        var pool = new WebDriverPool(1, 100, this::createDriver);
+        var hung = pool.withDriver(driver -> driver);
+        when(hung.getWindowHandles()).thenThrow(new WebDriverException("no response"));
+
+        var next = pool.withDriver(driver -> driver);
+
+        verify(hung).quit();
+        assertThat(next).isNotSameAs(hung);
+    }
+
+    @Test
+    void withDriver__closesTabsLeftOpenByPreviousUse() {
+        var pool = new WebDriverPool(1, 100, this::createDriver);
+        var driver = pool.withDriver(it -> it);
+        when(driver.getWindowHandles()).thenReturn(new LinkedHashSet<>(List.of("main", "left-open")));
+
+        var next = pool.withDriver(it -> it);
+
+        assertThat(next).isSameAs(driver);
+        verify(driver.switchTo().window("left-open")).close();
+        verify(driver.switchTo()).window("main");
+    }
+
+    @Test
+    void blockingProxyScript__blocksHostsAndTheirSubdomains() {
+        var script = WebDriverPool.blockingProxyScript(List.of("doubleclick.net", "gemius.pl"));
+
+        assertThat(script).startsWith("data:application/x-ns-proxy-autoconfig,");
+        var decoded = URLDecoder.decode(script.substring(script.indexOf(',') + 1), StandardCharsets.UTF_8);
+        assertThat(decoded).isEqualTo("function FindProxyForURL(url, host) { if (" +
+                "host == 'doubleclick.net' || dnsDomainIs(host, '.doubleclick.net') || " +
+                "host == 'gemius.pl' || dnsDomainIs(host, '.gemius.pl')) " +
+                "{ return 'PROXY 127.0.0.1:9'; } return 'DIRECT'; }");
+    }
+
+    private synchronized WebDriver createDriver() {
+        var driver = mock(WebDriver.class, RETURNS_DEEP_STUBS);
+        when(driver.getWindowHandles()).thenReturn(new LinkedHashSet<>(List.of("main")));
+        created.add(driver);
+        return driver;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
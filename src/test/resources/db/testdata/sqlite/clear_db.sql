@@ -1,4 +1,6 @@
 DELETE
+FROM notifications;
+DELETE
 FROM posts;
 DELETE
 from users;